@@ -3,6 +3,7 @@ plugins {
     `maven-publish`
     alias(libs.plugins.spotless)
     alias(libs.plugins.licenser)
+    alias(libs.plugins.jmh)
     id("codebook")
 }
 
@@ -46,6 +47,12 @@ dependencies {
 tasks.jar {
     manifest {
         attributes("Automatic-Module-Name" to "io.papermc.codebook")
+        attributes(
+            "io/papermc/codebook/",
+            "Specification-Title" to "codebook",
+            "Specification-Version" to project.version,
+            "Specification-Vendor" to "PaperMC",
+        )
     }
 }
 
@@ -64,6 +71,13 @@ tasks.test {
     useJUnitPlatform()
 }
 
+jmh {
+    // the benchmarks run against a real server jar: ./gradlew jmh -PbenchmarkJar=/path/to/server.jar
+    providers.gradleProperty("benchmarkJar").orNull?.let {
+        jvmArgsAppend.add("-Dcodebook.benchmark.jar=${file(it).absolutePath}")
+    }
+}
+
 tasks.register("printVersion") {
     doLast {
         println(project.version)
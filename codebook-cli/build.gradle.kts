@@ -31,6 +31,12 @@ tasks.jar {
             "Specification-Version" to project.version,
             "Specification-Vendor" to "PaperMC",
         )
+        attributes(
+            "io/papermc/codebook/",
+            "Specification-Title" to "codebook",
+            "Specification-Version" to project.version,
+            "Specification-Vendor" to "PaperMC",
+        )
     }
 }
 
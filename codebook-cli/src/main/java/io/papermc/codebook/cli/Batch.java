@@ -0,0 +1,199 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.cli;
+
+import io.papermc.codebook.CodeBookBatch;
+import io.papermc.codebook.config.CodeBookContext;
+import io.papermc.codebook.exceptions.UserErrorException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.bridge.SLF4JBridgeHandler;
+import picocli.CommandLine;
+import uk.org.lidalia.sysoutslf4j.context.SysOutOverSLF4J;
+
+@CommandLine.Command(
+        name = "codebook batch",
+        versionProvider = VersionProvider.class,
+        mixinStandardHelpOptions = true,
+        descriptionHeading = "%n",
+        optionListHeading = "%nOptions:%n",
+        description = "Runs several codebook jobs in one JVM. Downloaded and extracted files are shared between jobs.",
+        sortOptions = false,
+        usageHelpAutoWidth = true)
+final class Batch implements Callable<Integer> {
+
+    static final String COMMAND = "batch";
+
+    /**
+     * Options of a regular run which only affect the process running it, not the job.
+     */
+    private static final List<String> UNSUPPORTED_JOB_OPTIONS =
+            List.of("--timings", "--progress", "--daemon", "--verbose");
+
+    @CommandLine.Option(
+            names = {"-j", "--jobs"},
+            required = true,
+            paramLabel = "<file>",
+            description = "A file with one job per line, given as the arguments of a regular codebook run separated "
+                    + "by whitespace. Arguments containing whitespace can be quoted with ' or \", within quotes a "
+                    + "backslash escapes the next character. Empty lines and lines starting with # are ignored.")
+    private Path jobsFile;
+
+    @CommandLine.Option(
+            names = {"--memory-budget"},
+            paramLabel = "<size>",
+            description = "Run jobs concurrently as long as their combined heap usage is expected to stay below this "
+                    + "size, e.g. 12g or 4096m. Jobs run one at a time when not set.")
+    private @Nullable String memoryBudget;
+
+    @CommandLine.Option(
+            names = {"-v", "--verbose"},
+            description = "Don't suppress logging.",
+            defaultValue = "false")
+    private boolean verbose;
+
+    @Override
+    public Integer call() {
+        final long budget = this.memoryBudget != null ? parseSize(this.memoryBudget) : 0;
+        final List<CodeBookContext> jobs = this.readJobs();
+
+        final boolean v = this.verbose;
+        if (!v) {
+            SysOutOverSLF4J.sendSystemOutAndErrToSLF4J();
+            SLF4JBridgeHandler.removeHandlersForRootLogger();
+            SLF4JBridgeHandler.install();
+        }
+
+        try {
+            new CodeBookBatch(jobs, budget).exec();
+        } finally {
+            if (!v) {
+                SysOutOverSLF4J.stopSendingSystemOutAndErrToSLF4J();
+            }
+        }
+        return 0;
+    }
+
+    private List<CodeBookContext> readJobs() {
+        final List<String> lines;
+        try {
+            lines = Files.readAllLines(this.jobsFile);
+        } catch (final IOException e) {
+            throw new UserErrorException("Failed to read jobs file " + this.jobsFile, e);
+        }
+
+        final List<CodeBookContext> jobs = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            final String line = lines.get(i).strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            final Main job = new Main();
+            final CommandLine.ParseResult result;
+            try {
+                result = new CommandLine(job).parseArgs(tokenize(line).toArray(new String[0]));
+            } catch (final IllegalArgumentException | CommandLine.ParameterException e) {
+                throw new UserErrorException(
+                        "Invalid job on line " + (i + 1) + " of " + this.jobsFile + ": " + e.getMessage());
+            }
+            for (final String option : UNSUPPORTED_JOB_OPTIONS) {
+                if (result.hasMatchedOption(option)) {
+                    throw new UserErrorException("Invalid job on line " + (i + 1) + " of " + this.jobsFile + ": "
+                            + option + " is not supported for batch jobs");
+                }
+            }
+            jobs.add(job.createContext(null));
+        }
+
+        if (jobs.isEmpty()) {
+            throw new UserErrorException("No jobs found in " + this.jobsFile);
+        }
+        return jobs;
+    }
+
+    /**
+     * Splits {@code line} into arguments at whitespace outside of quotes. Quotes may appear anywhere in an argument,
+     * so {@code --output="a b.jar"} is a single argument.
+     */
+    static List<String> tokenize(final String line) {
+        final List<String> args = new ArrayList<>();
+        final StringBuilder arg = new StringBuilder();
+        boolean inArg = false;
+        char quote = 0;
+        for (int i = 0; i < line.length(); i++) {
+            final char c = line.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                } else if (c == '\\' && i + 1 < line.length()) {
+                    arg.append(line.charAt(++i));
+                } else {
+                    arg.append(c);
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+                inArg = true;
+            } else if (Character.isWhitespace(c)) {
+                if (inArg) {
+                    args.add(arg.toString());
+                    arg.setLength(0);
+                    inArg = false;
+                }
+            } else {
+                arg.append(c);
+                inArg = true;
+            }
+        }
+        if (quote != 0) {
+            throw new IllegalArgumentException("Unterminated " + quote + " quote");
+        }
+        if (inArg) {
+            args.add(arg.toString());
+        }
+        return args;
+    }
+
+    private static long parseSize(final String size) {
+        final String value = size.strip().toLowerCase(Locale.ROOT);
+        final long multiplier =
+                switch (value.isEmpty() ? ' ' : value.charAt(value.length() - 1)) {
+                    case 'k' -> 1L << 10;
+                    case 'm' -> 1L << 20;
+                    case 'g' -> 1L << 30;
+                    default -> 1;
+                };
+        final String number = multiplier == 1 ? value : value.substring(0, value.length() - 1);
+        try {
+            return Long.parseLong(number) * multiplier;
+        } catch (final NumberFormatException e) {
+            throw new UserErrorException("Invalid memory budget: " + size);
+        }
+    }
+}
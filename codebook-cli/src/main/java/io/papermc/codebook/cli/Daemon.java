@@ -0,0 +1,197 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.cli;
+
+import io.papermc.codebook.exceptions.UserErrorException;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+import picocli.CommandLine;
+
+@CommandLine.Command(
+        name = "codebook daemon",
+        versionProvider = VersionProvider.class,
+        mixinStandardHelpOptions = true,
+        descriptionHeading = "%n",
+        optionListHeading = "%nOptions:%n",
+        description = "Runs codebook as a long-lived process which accepts jobs from `codebook --daemon <socket>`. "
+                + "Jobs run one at a time in the same JVM, so class loading and JIT warmup are only paid once.",
+        sortOptions = false,
+        usageHelpAutoWidth = true)
+final class Daemon implements Callable<Integer> {
+
+    static final String COMMAND = "daemon";
+
+    static final byte FRAME_EXIT = 0;
+    static final byte FRAME_OUT = 1;
+    static final byte FRAME_ERR = 2;
+
+    @CommandLine.Option(
+            names = {"-s", "--socket"},
+            required = true,
+            paramLabel = "<socket>",
+            description = "The Unix domain socket file to listen on.")
+    private Path socket;
+
+    @Override
+    public Integer call() throws IOException {
+        final Path socketFile = this.socket.toAbsolutePath();
+        this.claimSocketFile(socketFile);
+
+        try (final ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            server.bind(UnixDomainSocketAddress.of(socketFile));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    Files.deleteIfExists(socketFile);
+                } catch (final IOException ignored) {
+                    // best effort
+                }
+            }));
+
+            System.out.println("codebook daemon listening on " + socketFile);
+            while (true) {
+                try (final SocketChannel client = server.accept()) {
+                    this.runJob(client);
+                } catch (final IOException e) {
+                    System.err.println("Failed to communicate with daemon client: " + e);
+                }
+            }
+        }
+    }
+
+    private void claimSocketFile(final Path socketFile) throws IOException {
+        if (!Files.exists(socketFile)) {
+            return;
+        }
+
+        try (final SocketChannel ignored = SocketChannel.open(UnixDomainSocketAddress.of(socketFile))) {
+            throw new UserErrorException("A codebook daemon is already listening on " + socketFile);
+        } catch (final IOException e) {
+            // Nothing is listening, this is a leftover from a daemon which didn't shut down cleanly
+            Files.delete(socketFile);
+        }
+    }
+
+    private void runJob(final SocketChannel client) throws IOException {
+        final DataInputStream in = new DataInputStream(Channels.newInputStream(client));
+        final DataOutputStream out = new DataOutputStream(Channels.newOutputStream(client));
+
+        final Path workingDir = Path.of(in.readUTF());
+        final boolean terminal = in.readBoolean();
+        final String[] args = new String[in.readInt()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = in.readUTF();
+        }
+
+        final PrintWriter stdout = frameWriter(out, FRAME_OUT);
+        final PrintWriter stderr = frameWriter(out, FRAME_ERR);
+
+        final CommandLine cmd = new CommandLine(new Main(terminal))
+                .setOut(stdout)
+                .setErr(stderr)
+                .setExecutionExceptionHandler(new Main.SimpleExceptionHandler())
+                // The daemon's working directory is unrelated to the client's, so resolve paths against the latter
+                .registerConverter(Path.class, workingDir::resolve);
+
+        // Jobs run one at a time, so whatever the job prints or logs to the console can be sent to its client
+        final PrintStream systemOut = System.out;
+        final PrintStream systemErr = System.err;
+        final PrintStream jobOut = frameStream(out, FRAME_OUT);
+        final PrintStream jobErr = frameStream(out, FRAME_ERR);
+        System.setOut(jobOut);
+        System.setErr(jobErr);
+        final int exitCode;
+        try {
+            exitCode = cmd.execute(args);
+        } finally {
+            System.setOut(systemOut);
+            System.setErr(systemErr);
+        }
+
+        stdout.flush();
+        stderr.flush();
+        jobOut.flush();
+        jobErr.flush();
+        synchronized (out) {
+            out.writeByte(FRAME_EXIT);
+            out.writeInt(exitCode);
+            out.flush();
+        }
+    }
+
+    private static PrintStream frameStream(final DataOutputStream out, final byte type) {
+        return new PrintStream(new FrameOutputStream(out, type), true, StandardCharsets.UTF_8);
+    }
+
+    private static PrintWriter frameWriter(final DataOutputStream out, final byte type) {
+        return new PrintWriter(new OutputStreamWriter(new FrameOutputStream(out, type), StandardCharsets.UTF_8), true);
+    }
+
+    private static final class FrameOutputStream extends OutputStream {
+
+        private final DataOutputStream out;
+        private final byte type;
+
+        private FrameOutputStream(final DataOutputStream out, final byte type) {
+            this.out = out;
+            this.type = type;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            this.write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            if (len == 0) {
+                return;
+            }
+            synchronized (this.out) {
+                this.out.writeByte(this.type);
+                this.out.writeInt(len);
+                this.out.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            synchronized (this.out) {
+                this.out.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.cli;
+
+import io.papermc.codebook.exceptions.UserErrorException;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+final class DaemonClient {
+
+    private DaemonClient() {}
+
+    static int run(
+            final Path socket,
+            final List<String> args,
+            final boolean terminal,
+            final PrintStream stdout,
+            final PrintStream stderr) {
+        final SocketChannel channel;
+        try {
+            channel = SocketChannel.open(UnixDomainSocketAddress.of(socket));
+        } catch (final IOException e) {
+            throw new UserErrorException("Failed to connect to codebook daemon at " + socket, e);
+        }
+
+        try (channel) {
+            final DataOutputStream out = new DataOutputStream(Channels.newOutputStream(channel));
+            out.writeUTF(Path.of("").toAbsolutePath().toString());
+            out.writeBoolean(terminal);
+            out.writeInt(args.size());
+            for (final String arg : args) {
+                out.writeUTF(arg);
+            }
+            out.flush();
+
+            final DataInputStream in = new DataInputStream(Channels.newInputStream(channel));
+            while (true) {
+                final byte type = in.readByte();
+                if (type == Daemon.FRAME_EXIT) {
+                    return in.readInt();
+                }
+
+                final byte[] data = new byte[in.readInt()];
+                in.readFully(data);
+                final PrintStream target = type == Daemon.FRAME_ERR ? stderr : stdout;
+                target.write(data);
+                target.flush();
+            }
+        } catch (final IOException e) {
+            throw new UserErrorException("Lost connection to codebook daemon at " + socket, e);
+        }
+    }
+
+    static List<String> stripDaemonOption(final List<String> args, final String option) {
+        final List<String> result = new ArrayList<>(args.size());
+        for (int i = 0; i < args.size(); i++) {
+            final String arg = args.get(i);
+            if (arg.equals(option)) {
+                i++;
+            } else if (!arg.startsWith(option + "=")) {
+                result.add(arg);
+            }
+        }
+        return result;
+    }
+}
@@ -24,15 +24,18 @@ package io.papermc.codebook.cli;
 
 import dev.denwav.hypo.core.HypoConfig;
 import io.papermc.codebook.CodeBook;
+import io.papermc.codebook.config.CodeBookCompression;
 import io.papermc.codebook.config.CodeBookContext;
 import io.papermc.codebook.config.CodeBookCoordsResource;
 import io.papermc.codebook.config.CodeBookFileResource;
+import io.papermc.codebook.config.CodeBookIncremental;
 import io.papermc.codebook.config.CodeBookInput;
 import io.papermc.codebook.config.CodeBookJarInput;
 import io.papermc.codebook.config.CodeBookResource;
 import io.papermc.codebook.config.CodeBookUriResource;
 import io.papermc.codebook.config.CodeBookVersionInput;
 import io.papermc.codebook.exceptions.UserErrorException;
+import io.papermc.codebook.metrics.PageListener;
 import io.papermc.codebook.report.ReportType;
 import io.papermc.codebook.report.Reports;
 import io.papermc.codebook.util.Downloader;
@@ -40,6 +43,7 @@ import java.io.IOException;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
@@ -175,6 +179,29 @@ public final class Main implements Callable<Integer> {
         private @Nullable List<Path> inputClasspath;
     }
 
+    @CommandLine.ArgGroup(
+            exclusive = false,
+            heading = "%nIncremental remapping reuses the output of a previous run for classes which haven't changed. "
+                    + "If the previous run used a different codebook version, unpick definitions, --lvt-rules or libraries, "
+                    + "every class is processed again.%n%n")
+    private @Nullable IncrementalOptions incremental;
+
+    static final class IncrementalOptions {
+        @CommandLine.Option(
+                names = "--previous-input",
+                required = true,
+                paramLabel = "<jar>",
+                description = "The input jar (or downloaded server jar) of the previous run.")
+        private Path previousInput;
+
+        @CommandLine.Option(
+                names = "--previous-output",
+                required = true,
+                paramLabel = "<jar>",
+                description = "The output jar of the previous run, its <jar>.fingerprint file must be next to it.")
+        private Path previousOutput;
+    }
+
     @CommandLine.Option(
             names = "--mappings-maven-base-url",
             paramLabel = "url",
@@ -213,6 +240,13 @@ public final class Main implements Callable<Integer> {
             description = "The temp dir to work in.")
     private @Nullable Path tempDir;
 
+    @CommandLine.Option(
+            names = {"--cache-dir"},
+            paramLabel = "<cache-dir>",
+            description = "A directory to keep extracted and unsigned jars in between runs. "
+                    + "Runs against the same input reuse them instead of extracting the input again.")
+    private @Nullable Path cacheDir;
+
     @CommandLine.Option(
             names = {"--hypo-parallelism"},
             paramLabel = "<parallelism-level>",
@@ -220,12 +254,90 @@ public final class Main implements Callable<Integer> {
             description = "The parallelism level to use for Hypo executions.")
     private int hypoConcurrency;
 
-    public Main() {}
+    @CommandLine.ArgGroup(exclusive = true)
+    private @Nullable CompressionOptions compression;
+
+    static final class CompressionOptions {
+        @CommandLine.Option(
+                names = "--compression-level",
+                paramLabel = "<0-9>",
+                description = "The deflate level to compress the output jar with.")
+        private @Nullable Integer level;
+
+        @CommandLine.Option(
+                names = "--store",
+                description = "Store output jar entries uncompressed. This is the fastest option for local builds.")
+        private boolean store;
+    }
+
+    @CommandLine.Option(
+            names = {"--collect-errors"},
+            description = "Keep processing the remaining classes when a class fails, and report all failures at the "
+                    + "end. By default the run stops at the first failure.")
+    private boolean collectErrors;
+
+    @CommandLine.Option(
+            names = {"--lvt-trace"},
+            paramLabel = "<lvt-trace>",
+            description = "Write how each local variable was named to the given file, as one JSON object per line.")
+    private @Nullable Path lvtTrace;
+
+    @CommandLine.Option(
+            names = {"--lvt-rules"},
+            paramLabel = "<lvt-rules>",
+            description = "Name local variables using the rules in the given file instead of the built-in rules.")
+    private @Nullable Path lvtRules;
+
+    @CommandLine.Option(
+            names = {"--timings"},
+            description = "Print a summary of the time and memory spent in each stage after remapping.")
+    private boolean timings;
+
+    @CommandLine.Option(
+            names = {"--progress"},
+            description = "Show the progress of class processing. Draws a progress bar on a terminal, "
+                    + "otherwise logs progress every few seconds.")
+    private boolean progress;
+
+    @CommandLine.Option(
+            names = {"--daemon"},
+            paramLabel = "<socket>",
+            description = "Send this job to the codebook daemon listening on the given socket instead of running it "
+                    + "in this process. Start a daemon with `codebook daemon --socket <socket>`.")
+    private @Nullable Path daemonSocket;
+
+    @CommandLine.Spec
+    private CommandLine.Model.CommandSpec spec;
+
+    private final boolean terminal;
+
+    public Main() {
+        this(System.console() != null);
+    }
+
+    /**
+     * @param terminal Whether the output of this command is shown on a terminal, which isn't the case for the console
+     *     of the process running it when it's run by the daemon.
+     */
+    Main(final boolean terminal) {
+        this.terminal = terminal;
+    }
 
     public static void main(final String[] args) {
-        final int exitCode = new CommandLine(new Main())
-                .setExecutionExceptionHandler(new Main.SimpleExceptionHandler())
-                .execute(args);
+        final int exitCode;
+        if (args.length > 0 && args[0].equals(Daemon.COMMAND)) {
+            exitCode = new CommandLine(new Daemon())
+                    .setExecutionExceptionHandler(new Main.SimpleExceptionHandler())
+                    .execute(Arrays.copyOfRange(args, 1, args.length));
+        } else if (args.length > 0 && args[0].equals(Batch.COMMAND)) {
+            exitCode = new CommandLine(new Batch())
+                    .setExecutionExceptionHandler(new Main.SimpleExceptionHandler())
+                    .execute(Arrays.copyOfRange(args, 1, args.length));
+        } else {
+            exitCode = new CommandLine(new Main())
+                    .setExecutionExceptionHandler(new Main.SimpleExceptionHandler())
+                    .execute(args);
+        }
         System.exit(exitCode);
     }
 
@@ -254,6 +366,18 @@ public final class Main implements Callable<Integer> {
 
     @Override
     public Integer call() {
+        if (this.daemonSocket != null) {
+            // check the options here so mistakes are reported without a round trip to the daemon
+            this.createContext(null);
+            final List<String> args = DaemonClient.stripDaemonOption(
+                    this.spec.commandLine().getParseResult().expandedArgs(), "--daemon");
+            return DaemonClient.run(this.daemonSocket, args, this.terminal, System.out, System.err);
+        }
+
+        // picocli creates its default error writer lazily, make sure it's created before System.err is redirected
+        final @Nullable ProgressRenderer progress =
+                this.progress ? new ProgressRenderer(this.spec.commandLine().getErr(), this.terminal) : null;
+
         final boolean v = this.verbose;
         if (!v) {
             SysOutOverSLF4J.sendSystemOutAndErrToSLF4J();
@@ -261,18 +385,30 @@ public final class Main implements Callable<Integer> {
             SLF4JBridgeHandler.install();
         }
 
+        final @Nullable PageTimings timings = this.timings ? new PageTimings() : null;
+        PageListener listener = PageListener.NOOP;
+        if (timings != null) {
+            listener = PageListener.combine(listener, timings);
+        }
+        if (progress != null) {
+            listener = PageListener.combine(listener, progress);
+        }
         try {
-            final CodeBookContext context = this.createContext();
+            final CodeBookContext context = this.createContext(listener);
             new CodeBook(context).exec();
         } finally {
             if (!v) {
                 SysOutOverSLF4J.stopSendingSystemOutAndErrToSLF4J();
             }
         }
+
+        if (timings != null) {
+            timings.print(this.spec.commandLine().getOut());
+        }
         return 0;
     }
 
-    private CodeBookContext createContext() {
+    CodeBookContext createContext(final @Nullable PageListener pageListener) {
         if (this.inputs.inputFile != null) {
             this.verifyJarFile("Input", this.inputs.inputFile.inputJar);
 
@@ -299,6 +435,13 @@ public final class Main implements Callable<Integer> {
             input = new CodeBookJarInput(this.inputs.inputFile.inputJar, classpath);
         }
 
+        @Nullable CodeBookIncremental incremental = null;
+        if (this.incremental != null) {
+            this.verifyJarFile("Previous input", this.incremental.previousInput);
+            this.verifyJarFile("Previous output", this.incremental.previousOutput);
+            incremental = new CodeBookIncremental(this.incremental.previousInput, this.incremental.previousOutput);
+        }
+
         final @Nullable CodeBookResource unpickDefinitions = this.getResource(
                 "definitions.unpick",
                 this.unpick != null ? this.unpick.unpickDefinitions : null,
@@ -323,6 +466,19 @@ public final class Main implements Callable<Integer> {
             reports = new Reports(this.reports.reportsDir, reportsToGenerate);
         }
 
+        @Nullable CodeBookCompression compression = null;
+        if (this.compression != null) {
+            if (this.compression.store) {
+                compression = CodeBookCompression.STORED;
+            } else if (this.compression.level != null) {
+                if (this.compression.level < 0 || this.compression.level > 9) {
+                    throw new UserErrorException(
+                            "--compression-level must be between 0 and 9: " + this.compression.level);
+                }
+                compression = CodeBookCompression.deflate(this.compression.level);
+            }
+        }
+
         @Nullable HypoConfig hypoConfig = null;
         if (this.hypoConcurrency != -1) {
             hypoConfig =
@@ -331,12 +487,19 @@ public final class Main implements Callable<Integer> {
 
         return CodeBookContext.builder()
                 .tempDir(this.tempDir)
+                .cacheDir(this.cacheDir)
                 .unpickDefinitions(unpickDefinitions)
                 .outputJar(this.outputJar)
                 .overwrite(this.forceWrite)
+                .collectErrors(this.collectErrors)
                 .input(input)
+                .incremental(incremental)
+                .compression(compression)
                 .reports(reports)
+                .lvtTrace(this.lvtTrace)
+                .lvtRules(this.lvtRules)
                 .hypoConfig(hypoConfig)
+                .pageListener(pageListener)
                 .build();
     }
 
@@ -0,0 +1,92 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.cli;
+
+import io.papermc.codebook.metrics.PageListener;
+import io.papermc.codebook.metrics.PageMetrics;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+final class PageTimings implements PageListener {
+
+    private static final String ROW_FORMAT = "%%-%ds %%10s %%10s %%12s %%12s%%n";
+
+    private final List<PageMetrics> metrics = new ArrayList<>();
+
+    @Override
+    public synchronized void pageFinished(final PageMetrics metrics) {
+        this.metrics.add(metrics);
+    }
+
+    synchronized void print(final PrintWriter out) {
+        if (this.metrics.isEmpty()) {
+            return;
+        }
+
+        int width = 24;
+        for (final PageMetrics m : this.metrics) {
+            width = Math.max(width, m.page().length());
+        }
+        final String rowFormat = ROW_FORMAT.formatted(width);
+
+        out.printf(rowFormat, "Page", "Wall", "CPU", "Allocated", "Peak heap");
+
+        long wall = 0;
+        long cpu = 0;
+        long allocated = 0;
+        long peak = 0;
+        for (final PageMetrics m : this.metrics) {
+            out.printf(
+                    rowFormat,
+                    m.page(),
+                    formatNanos(m.wallNanos()),
+                    formatNanos(m.cpuNanos()),
+                    formatBytes(m.allocatedBytes()),
+                    formatBytes(m.peakHeapBytes()));
+
+            wall += m.wallNanos();
+            cpu = cpu == -1 || m.cpuNanos() == -1 ? -1 : cpu + m.cpuNanos();
+            allocated = allocated == -1 || m.allocatedBytes() == -1 ? -1 : allocated + m.allocatedBytes();
+            // the peak of the run is unknown if the peak of any page is
+            peak = peak == -1 || m.peakHeapBytes() == -1 ? -1 : Math.max(peak, m.peakHeapBytes());
+        }
+
+        out.printf(rowFormat, "Total", formatNanos(wall), formatNanos(cpu), formatBytes(allocated), formatBytes(peak));
+        out.flush();
+    }
+
+    private static String formatNanos(final long nanos) {
+        if (nanos < 0) {
+            return "n/a";
+        }
+        return String.format("%.2fs", nanos / 1_000_000_000.0);
+    }
+
+    private static String formatBytes(final long bytes) {
+        if (bytes < 0) {
+            return "n/a";
+        }
+        return String.format("%.1f MiB", bytes / (1024.0 * 1024.0));
+    }
+}
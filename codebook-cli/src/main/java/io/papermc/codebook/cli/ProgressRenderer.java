@@ -0,0 +1,117 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.cli;
+
+import io.papermc.codebook.metrics.PageListener;
+import io.papermc.codebook.metrics.PageMetrics;
+import io.papermc.codebook.metrics.PageProgress;
+import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shows class processing progress, as a progress bar redrawn in place when writing to a terminal, or as a log line
+ * every few seconds otherwise.
+ */
+final class ProgressRenderer implements PageListener {
+
+    private static final int BAR_WIDTH = 30;
+    private static final long LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final PrintWriter out;
+    private final boolean terminal;
+
+    private int lineLength = 0;
+    private long lastLogNanos = 0;
+
+    ProgressRenderer(final PrintWriter out, final boolean terminal) {
+        this.out = out;
+        this.terminal = terminal;
+    }
+
+    @Override
+    public synchronized void pageProgress(final PageProgress progress) {
+        if (this.terminal) {
+            final String line = bar(progress) + " " + describe(progress);
+            // pad with spaces to clear what's left of a longer previous line
+            this.out.print("\r" + line + " ".repeat(Math.max(0, this.lineLength - line.length())));
+            this.lineLength = line.length();
+            this.out.flush();
+            return;
+        }
+
+        final long now = System.nanoTime();
+        if (this.lastLogNanos == 0
+                || now - this.lastLogNanos >= LOG_INTERVAL_NANOS
+                || progress.done() == progress.total()) {
+            this.lastLogNanos = now;
+            this.out.println(describe(progress));
+            this.out.flush();
+        }
+    }
+
+    @Override
+    public synchronized void pageFinished(final PageMetrics metrics) {
+        if (this.lineLength > 0) {
+            this.out.println();
+            this.out.flush();
+            this.lineLength = 0;
+        }
+        this.lastLogNanos = 0;
+    }
+
+    private static String bar(final PageProgress progress) {
+        final int filled = progress.total() == 0 ? BAR_WIDTH : (int) (BAR_WIDTH * progress.done() / progress.total());
+        return "[" + "=".repeat(filled) + " ".repeat(BAR_WIDTH - filled) + "]";
+    }
+
+    private static String describe(final PageProgress progress) {
+        final long percent = progress.total() == 0 ? 100 : 100 * progress.done() / progress.total();
+        final StringBuilder line = new StringBuilder()
+                .append(progress.page())
+                .append(": ")
+                .append(progress.done())
+                .append('/')
+                .append(progress.total())
+                .append(' ')
+                .append(progress.unit())
+                .append(" (")
+                .append(percent)
+                .append("%), ")
+                .append(Math.round(progress.perSecond()))
+                .append(' ')
+                .append(progress.unit())
+                .append("/s");
+
+        if (!progress.stragglers().isEmpty()) {
+            line.append(", waiting on");
+            for (final PageProgress.Straggler straggler : progress.stragglers()) {
+                line.append(' ')
+                        .append(straggler.item())
+                        .append(" (")
+                        .append(straggler.page())
+                        .append(String.format(", %.1fs)", straggler.elapsedNanos() / 1_000_000_000.0));
+            }
+        }
+        return line.toString();
+    }
+}
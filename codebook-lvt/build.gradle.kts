@@ -1,5 +1,6 @@
 plugins {
     `java-library`
+    alias(libs.plugins.jmh)
     id("codebook")
 }
 
@@ -35,3 +36,10 @@ publishing {
         }
     }
 }
+
+jmh {
+    // the benchmarks run against a real server jar: ./gradlew :codebook-lvt:jmh -PbenchmarkJar=/path/to/server.jar
+    providers.gradleProperty("benchmarkJar").orNull?.let {
+        jvmArgsAppend.add("-Dcodebook.benchmark.jar=${file(it).absolutePath}")
+    }
+}
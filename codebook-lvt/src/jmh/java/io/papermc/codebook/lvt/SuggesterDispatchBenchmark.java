@@ -0,0 +1,190 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.lvt;
+
+import static dev.denwav.hypo.model.ClassProviderRoot.fromJar;
+import static dev.denwav.hypo.model.data.MethodDescriptor.parseDescriptor;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import dev.denwav.hypo.asm.AsmClassDataProvider;
+import dev.denwav.hypo.core.HypoContext;
+import dev.denwav.hypo.model.data.ClassData;
+import dev.denwav.hypo.model.data.MethodData;
+import io.papermc.codebook.lvt.suggestion.LvtSuggester;
+import io.papermc.codebook.lvt.suggestion.context.ContainerContext;
+import io.papermc.codebook.lvt.suggestion.context.method.MethodCallContext;
+import io.papermc.codebook.lvt.suggestion.context.method.MethodInsnContext;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.VarInsnNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares passing every method call which is assigned to a local to the suggesters through the {@link SuggesterIndex}
+ * against calling every suggester in order until one returns a name.
+ *
+ * <p>Run with {@code ./gradlew :codebook-lvt:jmh -PbenchmarkJar=/path/to/server.jar}, the jar must not be a bundler jar.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SuggesterDispatchBenchmark {
+
+    private HypoContext context;
+    private List<? extends LvtSuggester> suggesters;
+    private SuggesterIndex index;
+    private final List<CallSite> sites = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        final String jar = System.getProperty("codebook.benchmark.jar");
+        if (jar == null) {
+            throw new IllegalStateException("codebook.benchmark.jar is not set, use -PbenchmarkJar=<server jar>");
+        }
+
+        this.context = HypoContext.builder()
+                .withProvider(AsmClassDataProvider.of(fromJar(Path.of(jar))))
+                .build();
+
+        final LvtTypeSuggester typeSuggester = new LvtTypeSuggester(this.context);
+        final Injector injector = Guice.createInjector(binder -> {
+            binder.bind(HypoContext.class).toInstance(this.context);
+            binder.bind(LvtTypeSuggester.class).toInstance(typeSuggester);
+            binder.bind(NamingRules.class).toInstance(NamingRules.defaults());
+        });
+        this.suggesters =
+                RootLvtSuggester.SUGGESTERS.stream().map(injector::getInstance).toList();
+        this.index = new SuggesterIndex(this.suggesters);
+
+        for (final ClassData classData : this.context.getProvider().allClasses()) {
+            for (final MethodData method : classData.methods()) {
+                this.collectSites(method);
+            }
+        }
+    }
+
+    private void collectSites(final MethodData container) throws IOException {
+        final MethodNode node = ContainerContext.fromHypo(container);
+        // the namer only suggests names for methods with local variable tables, some suggesters rely on that
+        if (node.localVariables == null) {
+            return;
+        }
+        for (final AbstractInsnNode insn : node.instructions) {
+            final int op = insn.getOpcode();
+            if (op != Opcodes.INVOKESTATIC && op != Opcodes.INVOKEVIRTUAL && op != Opcodes.INVOKEINTERFACE) {
+                continue;
+            }
+            // only calls whose result is stored in a local are passed to the suggesters
+            if (!(insn.getNext() instanceof final VarInsnNode store)
+                    || store.getOpcode() < Opcodes.ISTORE
+                    || store.getOpcode() > Opcodes.ASTORE
+                    || node.localVariables.stream().noneMatch(lvt -> lvt.index == store.var)) {
+                continue;
+            }
+
+            final MethodInsnNode methodInsn = (MethodInsnNode) insn;
+            final @Nullable ClassData owner = this.context.getContextProvider().findClass(methodInsn.owner);
+            final @Nullable MethodData method =
+                    RootLvtSuggester.findMethod(owner, methodInsn.name, parseDescriptor(methodInsn.desc));
+            if (owner == null || method == null) {
+                continue;
+            }
+
+            this.sites.add(new CallSite(
+                    MethodCallContext.create(method),
+                    MethodInsnContext.create(owner, methodInsn),
+                    ContainerContext.from(container)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        this.context.close();
+    }
+
+    @Benchmark
+    public void chain(final Blackhole blackhole) throws IOException {
+        for (final CallSite site : this.sites) {
+            blackhole.consume(this.suggestChained(site));
+        }
+    }
+
+    @Benchmark
+    public void indexed(final Blackhole blackhole) throws IOException {
+        for (final CallSite site : this.sites) {
+            blackhole.consume(this.suggestIndexed(site));
+        }
+    }
+
+    private @Nullable String suggestChained(final CallSite site) throws IOException {
+        for (final LvtSuggester suggester : this.suggesters) {
+            final @Nullable String suggestion = suggester.suggestFromMethod(site.call(), site.insn(), site.container());
+            if (suggestion != null) {
+                return suggestion;
+            }
+        }
+        return null;
+    }
+
+    private @Nullable String suggestIndexed(final CallSite site) throws IOException {
+        long candidates = this.index.candidates(
+                site.insn().owner().name(),
+                site.call().data().name(),
+                site.call().data().returnType());
+        while (candidates != 0) {
+            final LvtSuggester suggester = this.suggesters.get(Long.numberOfTrailingZeros(candidates));
+            candidates &= candidates - 1;
+            final @Nullable String suggestion = suggester.suggestFromMethod(site.call(), site.insn(), site.container());
+            if (suggestion != null) {
+                return suggestion;
+            }
+        }
+        return null;
+    }
+
+    private record CallSite(MethodCallContext call, MethodInsnContext insn, ContainerContext container) {}
+}
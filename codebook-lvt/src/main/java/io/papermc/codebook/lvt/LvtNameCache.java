@@ -0,0 +1,471 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.lvt;
+
+import static dev.denwav.hypo.model.data.MethodDescriptor.parseDescriptor;
+import static io.papermc.codebook.lvt.LvtUtil.toJvmType;
+
+import dev.denwav.hypo.asm.AsmMethodData;
+import dev.denwav.hypo.model.ClassDataProvider;
+import dev.denwav.hypo.model.data.ClassData;
+import dev.denwav.hypo.model.data.ClassKind;
+import dev.denwav.hypo.model.data.FieldData;
+import dev.denwav.hypo.model.data.MethodData;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import org.cadixdev.lorenz.model.MethodMapping;
+import org.cadixdev.lorenz.model.MethodParameterMapping;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.FieldInsnNode;
+import org.objectweb.asm.tree.LocalVariableNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.ParameterNode;
+
+/**
+ * Names picked for methods in earlier runs, keyed by a hash of everything naming a method depends on: its bytecode,
+ * owner, name and descriptor, its parameter mappings, the classes it references, the {@link NamingRules}, and
+ * {@link LvtNamer#ENGINE_VERSION}.
+ * Only methods without an outer scope are cached, as the names of other methods also depend on the names in their outer
+ * scopes.
+ *
+ * <p>Entries are loaded once from a single file and looked up and added concurrently while naming runs. {@link #save()}
+ * writes them back, merged with entries other runs saved in the meantime, keeping the most recently used entries which
+ * fit in the size limit.
+ */
+public final class LvtNameCache {
+
+    public static final long DEFAULT_MAX_BYTES = 128L * 1024 * 1024;
+
+    private static final int MAGIC = 0x4C56544E;
+    private static final int FORMAT = 1;
+    private static final String FILE_NAME = "names.bin";
+    private static final String LOCK_NAME = "names.lock";
+    // key, last use and payload length
+    private static final int ENTRY_OVERHEAD = 32 + 8 + 4;
+
+    private final Path dir;
+    private final long maxBytes;
+    private final long now = System.currentTimeMillis();
+    private final Map<ByteBuffer, Entry> entries = new ConcurrentHashMap<>();
+    // the dependencies of keys, which don't change during a run
+    private final Map<String, String> resolved = new ConcurrentHashMap<>();
+
+    private LvtNameCache(final Path dir, final long maxBytes) {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+    }
+
+    public static LvtNameCache open(final Path dir, final long maxBytes) throws IOException {
+        final LvtNameCache cache = new LvtNameCache(dir, maxBytes);
+        Files.createDirectories(dir);
+        cache.entries.putAll(read(dir.resolve(FILE_NAME)));
+        return cache;
+    }
+
+    /**
+     * Returns the key naming {@code method} is cached under. Besides the method itself, the key covers what the
+     * suggesters look up in other classes: the kinds, supertypes and record components of every class the method
+     * references or has locals of, which class each call resolves to, and whether the fields it reads are final.
+     */
+    byte[] key(
+            final ClassDataProvider provider,
+            final MethodData method,
+            final @Nullable MethodMapping mapping,
+            final NamingRules rules)
+            throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+
+        final MethodNode node = ((AsmMethodData) method).getNode();
+        final ClassWriter writer = new ClassWriter(0);
+        writer.visit(Opcodes.V21, Opcodes.ACC_PUBLIC, method.parentClass().name(), null, "java/lang/Object", null);
+        node.accept(writer);
+        writer.visitEnd();
+
+        final ByteBuffer header = ByteBuffer.allocate(8);
+        header.putInt(LvtNamer.ENGINE_VERSION).putInt(node.access);
+        digest.update(header.array());
+        digest.update(rules.hash());
+        digest.update(writer.toByteArray());
+        if (mapping != null) {
+            final List<MethodParameterMapping> params = new ArrayList<>(mapping.getParameterMappings());
+            params.sort(Comparator.comparingInt(MethodParameterMapping::getIndex));
+            for (final MethodParameterMapping param : params) {
+                digest.update(ByteBuffer.allocate(4).putInt(param.getIndex()).array());
+                digest.update(param.getDeobfuscatedName().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+        }
+        for (final String dependency :
+                this.dependencies(provider, method.parentClass().name(), node)) {
+            digest.update(dependency.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return digest.digest();
+    }
+
+    private Set<String> dependencies(final ClassDataProvider provider, final String owner, final MethodNode node)
+            throws IOException {
+        final Set<String> classes = new TreeSet<>();
+        final Set<String> dependencies = new TreeSet<>();
+
+        classes.add(owner);
+        addTypes(classes, Type.getMethodType(node.desc));
+        if (node.localVariables != null) {
+            for (final LocalVariableNode lvt : node.localVariables) {
+                addType(classes, Type.getType(lvt.desc));
+            }
+        }
+        for (final AbstractInsnNode insn : node.instructions) {
+            if (insn instanceof final MethodInsnNode methodInsn) {
+                addType(classes, Type.getObjectType(methodInsn.owner));
+                addTypes(classes, Type.getMethodType(methodInsn.desc));
+                dependencies.add(this.resolveMethod(provider, methodInsn.owner, methodInsn.name, methodInsn.desc));
+            } else if (insn instanceof final FieldInsnNode fieldInsn) {
+                addType(classes, Type.getObjectType(fieldInsn.owner));
+                addType(classes, Type.getType(fieldInsn.desc));
+                dependencies.add(this.resolveField(provider, fieldInsn.owner, fieldInsn.name, fieldInsn.desc));
+            }
+        }
+
+        for (final String name : classes) {
+            dependencies.add(this.fingerprint(provider, name));
+        }
+        return dependencies;
+    }
+
+    private String resolveMethod(
+            final ClassDataProvider provider, final String owner, final String name, final String desc)
+            throws IOException {
+        final String call = "call " + owner + "." + name + desc;
+        final @Nullable String cached = this.resolved.get(call);
+        if (cached != null) {
+            return cached;
+        }
+        final @Nullable MethodData method = owner.startsWith("[")
+                ? null
+                : RootLvtSuggester.findMethod(provider.findClass(owner), name, parseDescriptor(desc));
+        final String resolved =
+                call + " -> " + (method == null ? "?" : method.parentClass().name());
+        this.resolved.put(call, resolved);
+        return resolved;
+    }
+
+    private String resolveField(
+            final ClassDataProvider provider, final String owner, final String name, final String desc)
+            throws IOException {
+        final String access = "field " + owner + "." + name + ":" + desc;
+        final @Nullable String cached = this.resolved.get(access);
+        if (cached != null) {
+            return cached;
+        }
+        final @Nullable ClassData ownerClass = provider.findClass(owner);
+        final @Nullable FieldData field = ownerClass == null ? null : ownerClass.field(name, toJvmType(desc));
+        final String resolved = access + " -> " + (field == null ? "?" : field.isFinal() ? "final" : "mutable");
+        this.resolved.put(access, resolved);
+        return resolved;
+    }
+
+    private String fingerprint(final ClassDataProvider provider, final String name) throws IOException {
+        final String key = "class " + name;
+        final @Nullable String cached = this.resolved.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        final StringBuilder fingerprint = new StringBuilder(key);
+        final @Nullable ClassData classData = provider.findClass(name);
+        if (classData == null) {
+            fingerprint.append(" ?");
+        } else {
+            fingerprint.append(' ').append(classData.kinds());
+            final Set<String> supertypes = new TreeSet<>();
+            addSupertypes(classData, supertypes);
+            fingerprint.append(" extends ").append(supertypes);
+            if (classData.kinds().contains(ClassKind.RECORD)) {
+                final @Nullable List<FieldData> components = classData.recordComponents();
+                if (components != null) {
+                    fingerprint.append(" components");
+                    for (final FieldData component : components) {
+                        fingerprint
+                                .append(' ')
+                                .append(component.name())
+                                .append(':')
+                                .append(component.fieldType().asInternalName());
+                    }
+                }
+            }
+        }
+        final String result = fingerprint.toString();
+        this.resolved.put(key, result);
+        return result;
+    }
+
+    private static void addSupertypes(final ClassData classData, final Set<String> supertypes) throws IOException {
+        final @Nullable ClassData superClass = classData.superClass();
+        if (superClass != null && supertypes.add(superClass.name())) {
+            addSupertypes(superClass, supertypes);
+        }
+        for (final ClassData iface : classData.interfaces()) {
+            if (supertypes.add(iface.name())) {
+                addSupertypes(iface, supertypes);
+            }
+        }
+    }
+
+    private static void addTypes(final Set<String> classes, final Type methodType) {
+        addType(classes, methodType.getReturnType());
+        for (final Type arg : methodType.getArgumentTypes()) {
+            addType(classes, arg);
+        }
+    }
+
+    private static void addType(final Set<String> classes, final Type type) {
+        final Type element = type.getSort() == Type.ARRAY ? type.getElementType() : type;
+        if (element.getSort() == Type.OBJECT) {
+            classes.add(element.getInternalName());
+        }
+    }
+
+    /**
+     * Applies the names cached under {@code key} to {@code method} and returns the names used in its scope, or returns
+     * {@code null} if nothing usable is cached.
+     */
+    @Nullable
+    ScopedNames apply(final byte[] key, final MethodData method) {
+        final @Nullable Entry entry = this.entries.get(ByteBuffer.wrap(key));
+        if (entry == null) {
+            return null;
+        }
+        final @Nullable ScopedNames scopedNames;
+        try {
+            scopedNames = decode(entry.payload(), ((AsmMethodData) method).getNode());
+        } catch (final IOException e) {
+            return null;
+        }
+        if (scopedNames != null && entry.lastUsed() != this.now) {
+            this.entries.put(ByteBuffer.wrap(key), new Entry(this.now, entry.payload()));
+        }
+        return scopedNames;
+    }
+
+    void put(final byte[] key, final MethodData method, final ScopedNames scopedNames) {
+        this.entries.put(
+                ByteBuffer.wrap(key), new Entry(this.now, encode(((AsmMethodData) method).getNode(), scopedNames)));
+    }
+
+    /**
+     * Writes the cache back to disk. Entries saved by other runs since this cache was opened are kept as well, the
+     * least recently used entries are dropped to stay within the size limit.
+     */
+    public void save() throws IOException {
+        // file locks are held by the whole JVM, so runs in the same JVM need to be kept apart separately
+        synchronized (LvtNameCache.class) {
+            this.save0();
+        }
+    }
+
+    private void save0() throws IOException {
+        try (final FileChannel lockChannel = FileChannel.open(
+                        this.dir.resolve(LOCK_NAME), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                final FileLock ignored = lockChannel.lock()) {
+            final Path file = this.dir.resolve(FILE_NAME);
+            final Map<ByteBuffer, Entry> merged = new HashMap<>(read(file));
+            this.entries.forEach(
+                    (key, entry) -> merged.merge(key, entry, (a, b) -> a.lastUsed() >= b.lastUsed() ? a : b));
+
+            final List<Map.Entry<ByteBuffer, Entry>> sorted = new ArrayList<>(merged.entrySet());
+            sorted.sort(Comparator.comparingLong(
+                            (Map.Entry<ByteBuffer, Entry> e) -> e.getValue().lastUsed())
+                    .reversed());
+
+            final Path temp = Files.createTempFile(this.dir, ".tmp-", "-" + FILE_NAME);
+            try {
+                try (final DataOutputStream out =
+                        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(FORMAT);
+                    long size = 0;
+                    for (final Map.Entry<ByteBuffer, Entry> e : sorted) {
+                        final byte[] payload = e.getValue().payload();
+                        size += ENTRY_OVERHEAD + payload.length;
+                        if (size > this.maxBytes) {
+                            break;
+                        }
+                        out.write(e.getKey().array());
+                        out.writeLong(e.getValue().lastUsed());
+                        out.writeInt(payload.length);
+                        out.write(payload);
+                    }
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    private static Map<ByteBuffer, Entry> read(final Path file) throws IOException {
+        if (Files.notExists(file)) {
+            return Map.of();
+        }
+
+        final ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (in.remaining() < 8 || in.getInt() != MAGIC || in.getInt() != FORMAT) {
+            // written by a different version, start over
+            return Map.of();
+        }
+        final Map<ByteBuffer, Entry> entries = new HashMap<>();
+        while (in.hasRemaining()) {
+            if (in.remaining() < ENTRY_OVERHEAD) {
+                // truncated, start over
+                return Map.of();
+            }
+            final byte[] key = new byte[32];
+            in.get(key);
+            final long lastUsed = in.getLong();
+            final int length = in.getInt();
+            if (length < 0 || length > in.remaining()) {
+                // corrupt, start over
+                return Map.of();
+            }
+            final byte[] payload = new byte[length];
+            in.get(payload);
+            entries.put(ByteBuffer.wrap(key), new Entry(lastUsed, payload));
+        }
+        return entries;
+    }
+
+    private static byte[] encode(final MethodNode node, final ScopedNames scopedNames) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final DataOutputStream out = new DataOutputStream(bytes)) {
+            final List<LocalVariableNode> lvts = node.localVariables == null ? List.of() : node.localVariables;
+            out.writeInt(lvts.size());
+            for (final LocalVariableNode lvt : lvts) {
+                out.writeUTF(lvt.name);
+            }
+
+            out.writeInt(node.parameters == null ? -1 : node.parameters.size());
+            if (node.parameters != null) {
+                for (final @Nullable ParameterNode param : node.parameters) {
+                    out.writeBoolean(param != null);
+                    if (param != null) {
+                        out.writeUTF(param.name);
+                    }
+                }
+            }
+
+            out.writeInt(scopedNames.size());
+            for (final String name : scopedNames) {
+                out.writeUTF(name);
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static @Nullable ScopedNames decode(final byte[] payload, final MethodNode node) throws IOException {
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+
+        final int lvtCount = in.readInt();
+        final List<LocalVariableNode> lvts = node.localVariables == null ? List.of() : node.localVariables;
+        if (lvtCount != lvts.size()) {
+            return null;
+        }
+        final String[] lvtNames = new String[lvtCount];
+        for (int i = 0; i < lvtCount; i++) {
+            lvtNames[i] = in.readUTF();
+        }
+
+        final int paramCount = in.readInt();
+        if (paramCount < -1 || (node.parameters != null && paramCount != node.parameters.size())) {
+            return null;
+        }
+        final @Nullable String[] paramNames = new String[Math.max(paramCount, 0)];
+        for (int i = 0; i < paramCount; i++) {
+            paramNames[i] = in.readBoolean() ? in.readUTF() : null;
+        }
+
+        final ScopedNames scopedNames = ScopedNames.root();
+        final int scopeCount = in.readInt();
+        for (int i = 0; i < scopeCount; i++) {
+            scopedNames.add(in.readUTF());
+        }
+
+        for (int i = 0; i < lvtCount; i++) {
+            lvts.get(i).name = lvtNames[i];
+        }
+        if (paramCount != -1) {
+            if (node.parameters == null) {
+                node.parameters = Arrays.asList(new ParameterNode[paramCount]);
+            }
+            for (int i = 0; i < paramCount; i++) {
+                final @Nullable String name = paramNames[i];
+                if (name == null) {
+                    continue;
+                }
+                if (node.parameters.get(i) == null) {
+                    node.parameters.set(i, new ParameterNode(name, 0));
+                } else {
+                    node.parameters.get(i).name = name;
+                }
+            }
+        }
+        return scopedNames;
+    }
+
+    private record Entry(long lastUsed, byte[] payload) {}
+}
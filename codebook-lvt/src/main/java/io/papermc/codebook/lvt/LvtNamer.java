@@ -35,15 +35,13 @@ import dev.denwav.hypo.model.data.FieldData;
 import dev.denwav.hypo.model.data.HypoKey;
 import dev.denwav.hypo.model.data.MethodData;
 import dev.denwav.hypo.model.data.types.JvmType;
-import dev.denwav.hypo.model.data.types.PrimitiveType;
 import io.papermc.codebook.report.ReportType;
 import io.papermc.codebook.report.Reports;
 import io.papermc.codebook.report.type.MissingMethodParam;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -57,91 +55,108 @@ import org.objectweb.asm.tree.ParameterNode;
 
 public class LvtNamer {
 
-    public static final HypoKey<Set<String>> SCOPED_NAMES = HypoKey.create("Scoped Names");
+    public static final HypoKey<ScopedNames> SCOPED_NAMES = HypoKey.create("Scoped Names");
 
+    /**
+     * Part of the key of every {@link LvtNameCache} entry. Must be increased whenever a change to naming could pick
+     * different names for the same method.
+     */
+    public static final int ENGINE_VERSION = 1;
+
+    private final HypoContext context;
     private final MappingSet mappings;
     private final LvtTypeSuggester lvtTypeSuggester;
     private final Reports reports;
     private final Injector reportsInjector;
     private final RootLvtSuggester lvtAssignSuggester;
+    private final NamingRules namingRules;
+    private final @Nullable LvtNameCache cache;
+    private final @Nullable LvtTrace trace;
 
     public LvtNamer(final HypoContext context, final MappingSet mappings, final Reports reports) throws IOException {
+        this(context, mappings, reports, NamingRules.defaults(), null, null);
+    }
+
+    public LvtNamer(
+            final HypoContext context,
+            final MappingSet mappings,
+            final Reports reports,
+            final NamingRules namingRules,
+            final @Nullable LvtNameCache cache,
+            final @Nullable LvtTrace trace)
+            throws IOException {
+        this.context = context;
+        this.namingRules = namingRules;
+        // the missing suggestion report is filled in while suggesting, which cached methods skip
+        this.cache = reports.shouldGenerate(ReportType.MISSING_METHOD_LVT_SUGGESTION) ? null : cache;
+        this.trace = trace;
         this.mappings = mappings;
         this.lvtTypeSuggester = new LvtTypeSuggester(context);
         this.reports = reports;
         this.reportsInjector = Guice.createInjector(reports);
-        this.lvtAssignSuggester = new RootLvtSuggester(context, this.lvtTypeSuggester, this.reportsInjector);
+        this.lvtAssignSuggester =
+                new RootLvtSuggester(context, this.lvtTypeSuggester, this.reportsInjector, namingRules, trace);
     }
 
+    /**
+     * Names the locals of every method in {@code classData}. Naming a method also names its outer scopes, and may
+     * modify them, so methods connected through lambdas or local classes must not be named concurrently. Use
+     * {@link LvtScopes#groups(Iterable)} to find methods which can be.
+     */
     public void processClass(final AsmClassData classData) throws IOException {
-        for (final MethodData method : classData.methods()) {
-            this.fillNames(method);
-        }
+        this.fillNames(classData.methods());
     }
 
+    /**
+     * Names the locals of {@code method}, after its outer scopes. Not safe to call concurrently for methods in the
+     * same {@link LvtScopes#groups(Iterable) group}.
+     */
     public void fillNames(final MethodData method) throws IOException {
-        // Hopefully the overhead here won't be too bad. This method is generally safe in parallel, but
-        // `fixOuterScopeName` does require
-        // going back to modify previous methods, so we need to protect against multiple conflicting writes. Each class
-        // is run in parallel,
-        // so most of the time this shouldn't block between threads. Handling local classes is the only time we leave
-        // our "lane" so-to-speak
-        // and access another class from this method, which is what we are protecting against here.
-        //noinspection SynchronizationOnLocalVariableOrMethodParameter
-        synchronized (method) {
-            this.fillNames0(method);
+        this.fillNames(List.of(method));
+    }
+
+    /**
+     * Names the locals of each method in {@code methods} in order, after their outer scopes. Not safe to call
+     * concurrently for methods in the same {@link LvtScopes#groups(Iterable) group}.
+     */
+    public void fillNames(final Collection<? extends MethodData> methods) throws IOException {
+        final OuterScopeRenames renames = new OuterScopeRenames();
+        for (final MethodData method : methods) {
+            this.fillNames(method, renames);
         }
+        renames.apply();
     }
 
-    private void fillNames0(final MethodData method) throws IOException {
-        final @Nullable Set<String> names = method.get(SCOPED_NAMES);
+    private void fillNames(final MethodData method, final OuterScopeRenames renames) throws IOException {
+        final @Nullable ScopedNames names = method.get(SCOPED_NAMES);
         if (names != null) {
             // If scoped names is already filled out, this method has already been visited
             return;
         }
 
-        // Determine if this method exists as a lambda expression inside another method
+        // Determine if this method exists as a lambda expression inside another method, or is part of a local class
         // If it does, we need to keep track of the LVTs we inherit
+        final @Nullable List<LambdaClosure> lambdaCalls = method.get(HypoHydration.LAMBDA_CALLS);
+        final @Nullable LambdaClosure lambdaClosure = findLambdaClosure(method);
         @Nullable AsmMethodData outerMethod = null;
         int @Nullable [] outerMethodParamLvtIndices = null;
-        @Nullable LambdaClosure lambdaClosure = null;
-        final @Nullable List<LambdaClosure> lambdaCalls = method.get(HypoHydration.LAMBDA_CALLS);
-        // Only track synthetic, non-synthetic means a method reference which does not behave as a closure (does not
-        // capture LVT)
-        if (lambdaCalls != null && method.isSynthetic()) {
-            for (final LambdaClosure lambdaCall : lambdaCalls) {
-                // lambdaCall.getClosure() -> The lambda method
-                // lambdaCall.getContainingMethod() -> The outer method
-                if (lambdaCall.getLambda().equals(method)) {
-                    outerMethod = (AsmMethodData) lambdaCall.getContainingMethod();
-                    if (outerMethod.equals(method)) {
-                        // lambdas can be recursive
-                        outerMethod = null;
-                        continue;
-                    }
-                    outerMethodParamLvtIndices = lambdaCall.getParamLvtIndices();
-                    lambdaClosure = lambdaCall;
-                    // there can only be 1 outer method
-                    break;
-                }
-            }
+        if (lambdaClosure != null) {
+            outerMethod = (AsmMethodData) lambdaClosure.getContainingMethod();
+            outerMethodParamLvtIndices = lambdaClosure.getParamLvtIndices();
         }
 
         final MethodNode node = ((AsmMethodData) method).getNode();
         final ClassData parentClass = method.parentClass();
+        final MethodSlotLayout layout = MethodSlotLayout.of(method);
         // A method cannot be both a lambda expression and a local class, so if we've already determined an outer
         // method, there's nothing to do here.
         Set<String> innerClassFieldNames = Set.of();
         @Nullable LocalClassClosure localClassClosure = null;
         int @Nullable [] innerClassOuterMethodParamLvtIndices = null;
-        localCheck:
         if (outerMethod == null) {
-            final @Nullable List<LocalClassClosure> localClasses = parentClass.get(HypoHydration.LOCAL_CLASSES);
-            if (localClasses == null || localClasses.isEmpty()) {
-                break localCheck;
-            }
-
-            localClassClosure = localClasses.get(0);
+            localClassClosure = findLocalClassClosure(method);
+        }
+        if (localClassClosure != null) {
             outerMethod = (AsmMethodData) localClassClosure.getContainingMethod();
             // local classes don't capture as lvt, so don't assign `outerMethodParamLvtIndices`
 
@@ -152,17 +167,17 @@ public class LvtNamer {
         // This method (`fillNames`) will ensure the outer method has names defined in its scope first.
         // If the scope is already computed this is a no-op
         if (outerMethod != null) {
-            this.fillNames(outerMethod);
+            this.fillNames(outerMethod, renames);
         }
 
         // We inherit names from our outer scope, if it exists. These names will be included in our scope for any
         // potential inner scopes (other nested lambdas or local classes) that are present in this method too
-        final Set<String> scopedNames;
+        final ScopedNames scopedNames;
         if (outerMethod != null) {
-            final @Nullable Set<String> outerScope = outerMethod.get(SCOPED_NAMES);
-            scopedNames = new LinkedHashSet<>(outerScope == null ? Set.of() : outerScope);
+            final @Nullable ScopedNames outerScope = outerMethod.get(SCOPED_NAMES);
+            scopedNames = outerScope == null ? ScopedNames.root() : outerScope.nested();
         } else {
-            scopedNames = new LinkedHashSet<>();
+            scopedNames = ScopedNames.root();
         }
 
         if (innerClassOuterMethodParamLvtIndices != null && !innerClassFieldNames.isEmpty()) {
@@ -170,15 +185,15 @@ public class LvtNamer {
                 if (find(innerClassOuterMethodParamLvtIndices, outerLvt.index) == -1) {
                     continue;
                 }
-                if (innerClassFieldNames.contains(outerLvt.name)) {
+                final String outerName = renames.nameOf(outerMethod, outerLvt);
+                if (innerClassFieldNames.contains(outerName)) {
                     // We have a field in this local class which clashes with an outer variable.
                     // The only way to handle this kin of clash it to go back up and fix the
                     // local variable, we can't fix it here.
-                    fixOuterScopeName(
-                            new ClosureInfo(
-                                    localClassClosure.getContainingMethod(), localClassClosure.getParamLvtIndices()),
-                            outerLvt.name,
-                            RootLvtSuggester.determineFinalName(outerLvt.name, scopedNames),
+                    renames.rename(
+                            localClassClosure.getContainingMethod(),
+                            outerName,
+                            RootLvtSuggester.determineFinalName(outerName, scopedNames),
                             outerLvt.index);
                 }
             }
@@ -201,7 +216,29 @@ public class LvtNamer {
                             methodMapping.orElse(null),
                             outerMethodParamLvtIndices,
                             lambdaClosure,
-                            localClassClosure);
+                            localClassClosure,
+                            layout::paramToLvt);
+        }
+
+        // Names of methods without an outer scope only depend on the method and the classes it references, so they
+        // can be cached
+        final byte @Nullable [] cacheKey = this.cache != null && outerMethod == null
+                ? this.cache.key(
+                        this.context.getContextProvider(), method, methodMapping.orElse(null), this.namingRules)
+                : null;
+        if (cacheKey != null) {
+            final @Nullable ScopedNames cachedNames = this.cache.apply(cacheKey, method);
+            if (cachedNames != null) {
+                if (this.trace != null && node.localVariables != null) {
+                    for (final LocalVariableNode lvt : node.localVariables) {
+                        final LvtTrace.Decision decision = this.trace.begin(method, lvt);
+                        decision.picked("cache", null);
+                        this.trace.end(decision, lvt.name);
+                    }
+                }
+                method.store(SCOPED_NAMES, cachedNames);
+                return;
+            }
         }
 
         // If there's no LVT table there's nothing for us to process
@@ -219,7 +256,7 @@ public class LvtNamer {
                 final int fi = i;
                 @Nullable
                 String paramName = methodMapping
-                        .flatMap(m -> m.getParameterMapping(fromParamToLvtIndex(fi, method)))
+                        .flatMap(m -> m.getParameterMapping(layout.paramToLvt(fi)))
                         .map(Mapping::getDeobfuscatedName)
                         .orElse(null);
 
@@ -235,17 +272,13 @@ public class LvtNamer {
                 }
             }
 
-            method.store(SCOPED_NAMES, scopedNames);
+            this.storeScopedNames(method, scopedNames, cacheKey);
             return;
         }
 
         // remember which of our LVTs we've already set from captured values
         // just so we don't overwrite these later
-        final int[] ourCapturedLvts =
-                new int[outerMethodParamLvtIndices == null ? 0 : outerMethodParamLvtIndices.length];
-        Arrays.fill(ourCapturedLvts, -1);
-        // -1 if nothing
-        int ourCapturedLvtIndex = 0;
+        final LvtSlotTable slots = LvtSlotTable.acquire(node);
 
         // set our captured lvt names, if possible
         // only applies to lambda methods, not local classes
@@ -254,22 +287,23 @@ public class LvtNamer {
             final List<LocalVariableNode> outerLvts = outerMethod.getNode().localVariables;
             for (final LocalVariableNode outerLvt : outerLvts) {
                 final int ourLvtIndex = find(outerMethodParamLvtIndices, outerLvt.index);
-                if (ourLvtIndex != -1 && find(ourCapturedLvts, ourLvtIndex) == -1) {
-                    ourCapturedLvts[ourCapturedLvtIndex++] = ourLvtIndex;
+                if (ourLvtIndex != -1 && !slots.isCaptured(ourLvtIndex)) {
+                    slots.markCaptured(ourLvtIndex);
+                    final String outerName = renames.nameOf(outerMethod, outerLvt);
                     for (final LocalVariableNode ourLvt : node.localVariables) {
                         // we can apply this name to any matching LVT slot, since duplicates
                         // are guaranteed to be in different scopes
                         if (ourLvt.index == ourLvtIndex && ourLvt.desc.equals(outerLvt.desc)) {
-                            ourLvt.name = outerLvt.name;
+                            ourLvt.name = outerName;
                         }
                     }
 
-                    final int ourLvtParamIndex = fromLvtToParamIndex(ourLvtIndex, method);
+                    final int ourLvtParamIndex = layout.lvtToParam(ourLvtIndex);
                     // Also update the parameters table if this LVT slot is a parameter
                     if (ourLvtParamIndex != -1
                             && node.parameters != null
                             && node.parameters.size() > ourLvtParamIndex) {
-                        node.parameters.get(ourLvtParamIndex).name = outerLvt.name;
+                        node.parameters.get(ourLvtParamIndex).name = outerName;
                     }
                 }
             }
@@ -294,10 +328,6 @@ public class LvtNamer {
         // This will (probably) result in 2 separate scopes, and the same variable will have 2 separate
         // LVT entries for the same slot. By re-using the name we can prevent this from being created
         // as `thing1` or `thing2` for no reason.
-        int usedNameIndex = 0;
-        final @Nullable UsedLvtName[] usedNames = new UsedLvtName[node.localVariables.size()];
-
-        outer:
         for (final LocalVariableNode lvt : node.localVariables) {
             if (lvt.index == 0 && !method.isStatic()) {
                 if (!"this".equals(lvt.name)) {
@@ -306,19 +336,21 @@ public class LvtNamer {
                 continue;
             }
 
-            if (ourCapturedLvtIndex != -1) {
-                // Check if we've already set this name, if so, skip it
-                if (find(ourCapturedLvts, lvt.index) != -1) {
-                    continue;
-                }
+            // Check if we've already set this name, if so, skip it
+            if (slots.isCaptured(lvt.index)) {
+                continue;
             }
 
-            for (int i = 0; i < usedNameIndex; i++) {
-                @Nullable final UsedLvtName used = usedNames[i];
-                if (used != null && used.index == lvt.index && used.desc.equals(lvt.desc)) {
-                    lvt.name = used.name;
-                    continue outer;
+            final LvtTrace.@Nullable Decision decision = this.trace != null ? this.trace.begin(method, lvt) : null;
+
+            final @Nullable String usedName = slots.get(lvt.index, lvt.desc);
+            if (usedName != null) {
+                lvt.name = usedName;
+                if (decision != null) {
+                    decision.picked("reused", null);
+                    this.trace.end(decision, usedName);
                 }
+                continue;
             }
 
             final @Nullable String paramName = methodMapping
@@ -329,26 +361,80 @@ public class LvtNamer {
             @Nullable String mappedName = null;
             if (paramName != null) {
                 mappedName = RootLvtSuggester.determineFinalName(paramName, scopedNames);
+                if (decision != null) {
+                    decision.picked("mapping", paramName);
+                }
             }
 
             final String selectedName = mappedName != null
                     ? mappedName
-                    : this.lvtAssignSuggester.suggestName(method, node, lvt, scopedNames);
+                    : this.lvtAssignSuggester.suggestName(method, lvt, scopedNames, slots::firstStore);
 
             lvt.name = selectedName;
-            usedNames[usedNameIndex++] = new UsedLvtName(lvt.name, lvt.desc, lvt.index);
+            slots.put(lvt.index, lvt.desc, lvt.name);
+            if (decision != null) {
+                this.trace.end(decision, selectedName);
+            }
 
             // Also update the parameters table if this LVT slot is a parameter
-            final int paramIndexFromLvt = fromLvtToParamIndex(lvt.index, method);
+            final int paramIndexFromLvt = layout.lvtToParam(lvt.index);
             if (paramIndexFromLvt != -1 && node.parameters != null && node.parameters.size() > paramIndexFromLvt) {
                 node.parameters.get(paramIndexFromLvt).name = selectedName;
             }
         }
+        slots.release();
+
+        this.storeScopedNames(method, scopedNames, cacheKey);
+    }
 
+    private void storeScopedNames(
+            final MethodData method, final ScopedNames scopedNames, final byte @Nullable [] cacheKey) {
         method.store(SCOPED_NAMES, scopedNames);
+        if (cacheKey != null && this.cache != null) {
+            this.cache.put(cacheKey, method, scopedNames);
+        }
     }
 
-    private record UsedLvtName(String name, String desc, int index) {}
+    /**
+     * Returns the method whose scope {@code method} inherits names from, if any.
+     */
+    static @Nullable MethodData outerScope(final MethodData method) throws IOException {
+        final @Nullable LambdaClosure lambdaClosure = findLambdaClosure(method);
+        if (lambdaClosure != null) {
+            return lambdaClosure.getContainingMethod();
+        }
+        final @Nullable LocalClassClosure localClassClosure = findLocalClassClosure(method);
+        return localClassClosure != null ? localClassClosure.getContainingMethod() : null;
+    }
+
+    private static @Nullable LambdaClosure findLambdaClosure(final MethodData method) {
+        final @Nullable List<LambdaClosure> lambdaCalls = method.get(HypoHydration.LAMBDA_CALLS);
+        // Only track synthetic, non-synthetic means a method reference which does not behave as a closure (does not
+        // capture LVT)
+        if (lambdaCalls == null || !method.isSynthetic()) {
+            return null;
+        }
+        for (final LambdaClosure lambdaCall : lambdaCalls) {
+            // lambdaCall.getClosure() -> The lambda method
+            // lambdaCall.getContainingMethod() -> The outer method
+            // lambdas can be recursive
+            if (lambdaCall.getLambda().equals(method)
+                    && !lambdaCall.getContainingMethod().equals(method)) {
+                // there can only be 1 outer method
+                return lambdaCall;
+            }
+        }
+        return null;
+    }
+
+    private static @Nullable LocalClassClosure findLocalClassClosure(final MethodData method) throws IOException {
+        final @Nullable List<LocalClassClosure> localClasses =
+                method.parentClass().get(HypoHydration.LOCAL_CLASSES);
+        if (localClasses == null || localClasses.isEmpty()) {
+            return null;
+        }
+        return localClasses.get(0);
+    }
 
     private static Set<String> collectAllFields(final ClassData classData) throws IOException {
         final HashSet<String> names = new HashSet<>();
@@ -383,61 +469,6 @@ public class LvtNamer {
         }
     }
 
-    private static void fixOuterScopeName(
-            final ClosureInfo closureInfo, final String badName, final String newName, final int lvtIndex) {
-        final MethodData containing = closureInfo.containing();
-        final MethodNode node = ((AsmMethodData) containing).getNode();
-
-        for (final LocalVariableNode lvt : node.localVariables) {
-            if (lvt.index == lvtIndex && lvt.name.equals(badName)) {
-                lvt.name = newName;
-            }
-        }
-
-        final int paramIndex = fromLvtToParamIndex(lvtIndex, containing);
-        if (paramIndex != -1 && node.parameters != null) {
-            node.parameters.get(paramIndex).name = newName;
-        }
-
-        // protect against `fillNames`
-        synchronized (containing) {
-            final @Nullable Set<String> containingScope = containing.get(SCOPED_NAMES);
-            // should never be null
-            if (containingScope != null) {
-                containingScope.add(newName);
-            }
-        }
-
-        final @Nullable List<LambdaClosure> lambdas = containing.get(HypoHydration.LAMBDA_CALLS);
-        final @Nullable List<LocalClassClosure> localClasses = containing.get(HypoHydration.LOCAL_CLASSES);
-        final ArrayList<ClosureInfo> innerClosureContainingMethods = new ArrayList<>(
-                (lambdas != null ? lambdas.size() : 0) + (localClasses != null ? localClasses.size() : 0));
-        if (lambdas != null) {
-            for (final LambdaClosure lambda : lambdas) {
-                if (!lambda.getContainingMethod().equals(containing)) {
-                    innerClosureContainingMethods.add(
-                            new ClosureInfo(lambda.getContainingMethod(), lambda.getParamLvtIndices()));
-                }
-            }
-        }
-        if (localClasses != null) {
-            for (final LocalClassClosure localClass : localClasses) {
-                if (!localClass.getContainingMethod().equals(containing)) {
-                    innerClosureContainingMethods.add(
-                            new ClosureInfo(localClass.getContainingMethod(), localClass.getParamLvtIndices()));
-                }
-            }
-        }
-
-        for (final ClosureInfo closure : innerClosureContainingMethods) {
-            if (closure.paramLvtIndices().length > lvtIndex) {
-                fixOuterScopeName(closure, badName, newName, closure.paramLvtIndices()[lvtIndex]);
-            }
-        }
-    }
-
-    private record ClosureInfo(MethodData containing, int[] paramLvtIndices) {}
-
     private static String packageName(final ClassData classData) {
         final String name = classData.name();
         final int lastIndex = name.lastIndexOf('/');
@@ -460,48 +491,4 @@ public class LvtNamer {
         }
         return -1;
     }
-
-    /*
-     * Transform the given LVT index into a parameter index.
-     */
-    private static int fromLvtToParamIndex(final int lvtIndex, final MethodData method) {
-        int currentIndex = 0;
-        int currentLvtIndex = method.isStatic() ? 0 : 1;
-
-        for (final JvmType param : method.params()) {
-            if (currentLvtIndex == lvtIndex) {
-                return currentIndex;
-            }
-
-            currentIndex++;
-            currentLvtIndex++;
-            if (param == PrimitiveType.LONG || param == PrimitiveType.DOUBLE) {
-                currentLvtIndex++;
-            }
-        }
-
-        return -1;
-    }
-
-    /*
-     * Transform the given param index into a lvt index.
-     */
-    private static int fromParamToLvtIndex(final int paramIndex, final MethodData method) {
-        int currentLvtIndex = method.isStatic() ? 0 : 1;
-        int currentParamIndex = 0;
-
-        for (final JvmType param : method.params()) {
-            if (currentParamIndex == paramIndex) {
-                return currentLvtIndex;
-            }
-
-            currentParamIndex++;
-            currentLvtIndex++;
-            if (param == PrimitiveType.LONG || param == PrimitiveType.DOUBLE) {
-                currentLvtIndex++;
-            }
-        }
-
-        return -1;
-    }
 }
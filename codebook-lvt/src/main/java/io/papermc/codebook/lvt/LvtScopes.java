@@ -0,0 +1,139 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.lvt;
+
+import dev.denwav.hypo.hydrate.generic.HypoHydration;
+import dev.denwav.hypo.hydrate.generic.LambdaClosure;
+import dev.denwav.hypo.hydrate.generic.LocalClassClosure;
+import dev.denwav.hypo.model.data.ClassData;
+import dev.denwav.hypo.model.data.MethodData;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Splits methods into groups which {@link LvtNamer} can name independently of each other. Methods are grouped when one
+ * is a lambda or local class method of the other, as naming a method reads and modifies the names of its outer
+ * scopes.
+ */
+public final class LvtScopes {
+
+    private LvtScopes() {}
+
+    /**
+     * Groups the methods of {@code classes}. Within a group, methods are ordered so outer scopes always come before
+     * the methods nested in them, and otherwise in the order of {@code classes}. Naming each group in order gives the
+     * same result as naming every class in order.
+     */
+    public static List<List<MethodData>> groups(final Iterable<? extends ClassData> classes) throws IOException {
+        final List<MethodData> methods = new ArrayList<>();
+        final Map<MethodData, Integer> indices = new HashMap<>();
+        for (final ClassData classData : classes) {
+            for (final MethodData method : classData.methods()) {
+                indices.put(method, methods.size());
+                methods.add(method);
+            }
+        }
+
+        final int[] parents = new int[methods.size()];
+        for (int i = 0; i < parents.length; i++) {
+            parents[i] = i;
+        }
+        for (final MethodData method : methods) {
+            final @Nullable List<LambdaClosure> lambdas = method.get(HypoHydration.LAMBDA_CALLS);
+            if (lambdas != null) {
+                for (final LambdaClosure closure : lambdas) {
+                    union(parents, indices, closure.getLambda(), closure.getContainingMethod());
+                }
+            }
+        }
+        for (final ClassData classData : classes) {
+            final @Nullable List<LocalClassClosure> localClasses = classData.get(HypoHydration.LOCAL_CLASSES);
+            if (localClasses == null) {
+                continue;
+            }
+            for (final LocalClassClosure closure : localClasses) {
+                for (final MethodData method : classData.methods()) {
+                    union(parents, indices, method, closure.getContainingMethod());
+                }
+            }
+        }
+
+        final Map<Integer, List<MethodData>> groups = new HashMap<>();
+        final List<List<MethodData>> result = new ArrayList<>();
+        final Set<MethodData> visited = new HashSet<>();
+        for (final MethodData method : methods) {
+            final List<MethodData> group = groups.computeIfAbsent(find(parents, indices.get(method)), k -> {
+                final List<MethodData> list = new ArrayList<>();
+                result.add(list);
+                return list;
+            });
+            visit(method, indices, visited, group);
+        }
+        return result;
+    }
+
+    private static void visit(
+            final MethodData method,
+            final Map<MethodData, Integer> indices,
+            final Set<MethodData> visited,
+            final List<MethodData> group)
+            throws IOException {
+        if (!visited.add(method)) {
+            return;
+        }
+        final @Nullable MethodData outer = LvtNamer.outerScope(method);
+        if (outer != null && indices.containsKey(outer)) {
+            visit(outer, indices, visited, group);
+        }
+        group.add(method);
+    }
+
+    private static void union(
+            final int[] parents, final Map<MethodData, Integer> indices, final MethodData a, final MethodData b) {
+        final @Nullable Integer indexA = indices.get(a);
+        final @Nullable Integer indexB = indices.get(b);
+        if (indexA == null || indexB == null) {
+            return;
+        }
+        final int rootA = find(parents, indexA);
+        final int rootB = find(parents, indexB);
+        if (rootA != rootB) {
+            parents[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+        }
+    }
+
+    private static int find(final int[] parents, final int start) {
+        int index = start;
+        while (parents[index] != index) {
+            parents[index] = parents[parents[index]];
+            index = parents[index];
+        }
+        return index;
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.lvt;
+
+import java.util.Arrays;
+import java.util.Objects;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.VarInsnNode;
+
+/**
+ * Per-slot bookkeeping while naming the locals of a single method: which slots took their name from a captured outer
+ * variable, which name was picked for each slot and descriptor, and the first store to each slot. Tables are meant to
+ * be reused between methods on the same thread, {@link #reset(int)} clears a table without touching its arrays.
+ */
+final class LvtSlotTable {
+
+    private static final ThreadLocal<LvtSlotTable> TABLES = ThreadLocal.withInitial(LvtSlotTable::new);
+
+    // a slot's entries are only valid while its stamp matches the current generation, which is never 0
+    private int generation = 0;
+    private int[] stamps = new int[0];
+    private int[] capturedStamps = new int[0];
+    private int[] counts = new int[0];
+    private @Nullable String[][] descs = new String[0][];
+    private @Nullable String[][] names = new String[0][];
+
+    // the first store instruction for each slot, only indexed when it's needed
+    private @Nullable MethodNode node;
+    private boolean storesIndexed = false;
+    private @Nullable VarInsnNode[] firstStores = new VarInsnNode[0];
+
+    private LvtSlotTable() {}
+
+    static LvtSlotTable acquire(final MethodNode node) {
+        final LvtSlotTable table = TABLES.get();
+        table.release();
+        table.reset(node.maxLocals);
+        table.node = node;
+        return table;
+    }
+
+    /**
+     * Drops the references this table holds to the method it was acquired for.
+     */
+    void release() {
+        this.node = null;
+        if (this.storesIndexed) {
+            Arrays.fill(this.firstStores, null);
+            this.storesIndexed = false;
+        }
+    }
+
+    void reset(final int maxLocals) {
+        this.ensureCapacity(maxLocals);
+        this.generation++;
+        if (this.generation == 0) {
+            // wrapped around, old stamps could match again
+            Arrays.fill(this.stamps, 0);
+            Arrays.fill(this.capturedStamps, 0);
+            this.generation = 1;
+        }
+    }
+
+    /**
+     * Returns the first store instruction to {@code slot} in the method this table was acquired for. All stores are
+     * indexed in a single pass over the instructions the first time this is called for a method.
+     */
+    @Nullable
+    VarInsnNode firstStore(final int slot) {
+        if (!this.storesIndexed) {
+            this.indexStores();
+        }
+        return slot >= 0 && slot < this.firstStores.length ? this.firstStores[slot] : null;
+    }
+
+    private void indexStores() {
+        final MethodNode node = Objects.requireNonNull(this.node, "table was released");
+        for (final AbstractInsnNode insn : node.instructions) {
+            final int op = insn.getOpcode();
+            if (op < Opcodes.ISTORE || op > Opcodes.ASTORE) {
+                continue;
+            }
+            final VarInsnNode varInsn = (VarInsnNode) insn;
+            this.ensureCapacity(varInsn.var + 1);
+            if (this.firstStores[varInsn.var] == null) {
+                this.firstStores[varInsn.var] = varInsn;
+            }
+        }
+        this.storesIndexed = true;
+    }
+
+    void markCaptured(final int slot) {
+        this.ensureCapacity(slot + 1);
+        this.capturedStamps[slot] = this.generation;
+    }
+
+    boolean isCaptured(final int slot) {
+        return slot < this.capturedStamps.length && this.capturedStamps[slot] == this.generation;
+    }
+
+    /**
+     * Returns the name previously {@link #put(int, String, String) put} for {@code slot} and {@code desc}.
+     */
+    @Nullable
+    String get(final int slot, final String desc) {
+        if (slot >= this.stamps.length || this.stamps[slot] != this.generation) {
+            return null;
+        }
+        final @Nullable String[] slotDescs = this.descs[slot];
+        for (int i = 0; i < this.counts[slot]; i++) {
+            if (desc.equals(slotDescs[i])) {
+                return this.names[slot][i];
+            }
+        }
+        return null;
+    }
+
+    void put(final int slot, final String desc, final String name) {
+        this.ensureCapacity(slot + 1);
+        if (this.stamps[slot] != this.generation) {
+            this.stamps[slot] = this.generation;
+            this.counts[slot] = 0;
+        }
+
+        @Nullable String[] slotDescs = this.descs[slot];
+        @Nullable String[] slotNames = this.names[slot];
+        final int count = this.counts[slot];
+        if (slotDescs == null || count == slotDescs.length) {
+            final int length = slotDescs == null ? 2 : slotDescs.length * 2;
+            slotDescs = slotDescs == null ? new String[length] : Arrays.copyOf(slotDescs, length);
+            slotNames = slotNames == null ? new String[length] : Arrays.copyOf(slotNames, length);
+            this.descs[slot] = slotDescs;
+            this.names[slot] = slotNames;
+        }
+        slotDescs[count] = desc;
+        slotNames[count] = name;
+        this.counts[slot] = count + 1;
+    }
+
+    private void ensureCapacity(final int slots) {
+        if (slots <= this.stamps.length) {
+            return;
+        }
+        final int length = Math.max(slots, this.stamps.length * 2);
+        this.stamps = Arrays.copyOf(this.stamps, length);
+        this.capturedStamps = Arrays.copyOf(this.capturedStamps, length);
+        this.counts = Arrays.copyOf(this.counts, length);
+        this.descs = Arrays.copyOf(this.descs, length);
+        this.names = Arrays.copyOf(this.names, length);
+        this.firstStores = Arrays.copyOf(this.firstStores, length);
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.lvt;
+
+import dev.denwav.hypo.model.data.MethodData;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.objectweb.asm.tree.LocalVariableNode;
+
+/**
+ * Records how each local variable got its name, as one JSON object per line. Naming only calls into the trace when one
+ * is given, so naming without a trace does no extra work.
+ *
+ * <p>Each line holds the method and the LVT slot, the {@code source} of the name, the {@code suggested} name before
+ * de-duplication, the final {@code name}, the suggesters which were {@code tried} before one returned a name, and the
+ * {@code nanos} spent. Sources are {@code mapping}, {@code reused} for a slot which already got a name earlier in the
+ * method, {@code cache}, the simple class name of the suggester which picked the name, or {@code LvtTypeSuggester} when
+ * the name is derived from the type.
+ */
+public final class LvtTrace implements AutoCloseable {
+
+    private static final int FLUSH_CHARS = 64 * 1024;
+
+    private final Writer writer;
+    private final ThreadLocal<@Nullable Decision> current = new ThreadLocal<>();
+    private final ThreadLocal<StringBuilder> buffers;
+    private final List<StringBuilder> allBuffers = new ArrayList<>();
+
+    private LvtTrace(final Writer writer) {
+        this.writer = writer;
+        this.buffers = ThreadLocal.withInitial(() -> {
+            final StringBuilder buffer = new StringBuilder();
+            synchronized (this.allBuffers) {
+                this.allBuffers.add(buffer);
+            }
+            return buffer;
+        });
+    }
+
+    public static LvtTrace open(final Path file) throws IOException {
+        return new LvtTrace(Files.newBufferedWriter(file));
+    }
+
+    /**
+     * Starts recording the decision for {@code lvt}. Suggesters called on this thread until {@link #end} are recorded
+     * as tried.
+     */
+    Decision begin(final MethodData method, final LocalVariableNode lvt) {
+        final Decision decision = new Decision(method, lvt, System.nanoTime());
+        this.current.set(decision);
+        return decision;
+    }
+
+    /**
+     * Returns the decision which is being recorded on this thread, if any.
+     */
+    @Nullable
+    Decision current() {
+        return this.current.get();
+    }
+
+    void end(final Decision decision, final String name) {
+        final long nanos = System.nanoTime() - decision.startNanos;
+        this.current.remove();
+
+        final StringBuilder line = this.buffers.get();
+        line.append("{\"class\":");
+        appendString(line, decision.method.parentClass().name());
+        line.append(",\"method\":");
+        appendString(line, decision.method.name());
+        line.append(",\"desc\":");
+        appendString(line, decision.method.descriptorText());
+        line.append(",\"slot\":").append(decision.lvt.index);
+        line.append(",\"type\":");
+        appendString(line, decision.lvt.desc);
+        line.append(",\"source\":");
+        appendString(line, decision.source);
+        if (decision.suggested != null) {
+            line.append(",\"suggested\":");
+            appendString(line, decision.suggested);
+        }
+        line.append(",\"name\":");
+        appendString(line, name);
+        line.append(",\"tried\":[");
+        for (int i = 0; i < decision.tried.size(); i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            appendString(line, decision.tried.get(i));
+        }
+        line.append("],\"nanos\":").append(nanos).append("}\n");
+
+        if (line.length() >= FLUSH_CHARS) {
+            this.flush(line);
+        }
+    }
+
+    private void flush(final StringBuilder buffer) {
+        synchronized (this.writer) {
+            try {
+                this.writer.append(buffer);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        buffer.setLength(0);
+    }
+
+    /**
+     * Writes what every thread recorded and closes the file. Must only be called once naming is done.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this.allBuffers) {
+            for (final StringBuilder buffer : this.allBuffers) {
+                this.flush(buffer);
+            }
+        }
+        this.writer.close();
+    }
+
+    private static void appendString(final StringBuilder out, final String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+
+    static final class Decision {
+        private final MethodData method;
+        private final LocalVariableNode lvt;
+        private final long startNanos;
+        private final List<String> tried = new ArrayList<>();
+        private String source = "unknown";
+        private @Nullable String suggested;
+
+        private Decision(final MethodData method, final LocalVariableNode lvt, final long startNanos) {
+            this.method = method;
+            this.lvt = lvt;
+            this.startNanos = startNanos;
+        }
+
+        void tried(final Class<?> suggester) {
+            this.tried.add(suggester.getSimpleName());
+        }
+
+        void picked(final Class<?> suggester, final String suggested) {
+            this.picked(suggester.getSimpleName(), suggested);
+        }
+
+        void picked(final String source, final @Nullable String suggested) {
+            this.source = source;
+            this.suggested = suggested;
+        }
+    }
+}
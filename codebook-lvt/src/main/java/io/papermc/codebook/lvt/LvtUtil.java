@@ -24,7 +24,6 @@ package io.papermc.codebook.lvt;
 
 import dev.denwav.hypo.asm.HypoAsmUtil;
 import dev.denwav.hypo.model.data.types.JvmType;
-import java.util.List;
 import java.util.Locale;
 import java.util.function.Predicate;
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -102,21 +101,6 @@ public final class LvtUtil {
         return nextWord.toString();
     }
 
-    public static @Nullable String tryMatchPrefix(final String methodName, final List<String> possiblePrefixes) {
-        // skip any exact match
-        if (possiblePrefixes.contains(methodName)) {
-            return null;
-        }
-        @Nullable String prefix = null;
-        for (final String possiblePrefix : possiblePrefixes) {
-            if (hasPrefix(methodName, possiblePrefix)) {
-                prefix = possiblePrefix;
-                break;
-            }
-        }
-        return prefix;
-    }
-
     public static boolean isStringAllUppercase(final String input) {
         for (int i = 0; i < input.length(); i++) {
             final char ch = input.charAt(i);
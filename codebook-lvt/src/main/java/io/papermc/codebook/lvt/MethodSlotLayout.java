@@ -0,0 +1,85 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.lvt;
+
+import dev.denwav.hypo.model.data.MethodData;
+import dev.denwav.hypo.model.data.types.JvmType;
+import dev.denwav.hypo.model.data.types.PrimitiveType;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps between the parameter indices and the LVT slots of a method. The layout only depends on the method's
+ * descriptor and whether it's static, so methods which share both share a layout.
+ */
+final class MethodSlotLayout {
+
+    private static final Map<Key, MethodSlotLayout> LAYOUTS = new ConcurrentHashMap<>();
+
+    private final int[] paramToLvt;
+    // -1 for the receiver and for the second slot of wide params
+    private final int[] lvtToParam;
+
+    private MethodSlotLayout(final List<JvmType> params, final boolean isStatic) {
+        this.paramToLvt = new int[params.size()];
+        int slot = isStatic ? 0 : 1;
+        for (int i = 0; i < params.size(); i++) {
+            this.paramToLvt[i] = slot;
+            final JvmType param = params.get(i);
+            slot += param == PrimitiveType.LONG || param == PrimitiveType.DOUBLE ? 2 : 1;
+        }
+
+        this.lvtToParam = new int[slot];
+        Arrays.fill(this.lvtToParam, -1);
+        for (int i = 0; i < this.paramToLvt.length; i++) {
+            this.lvtToParam[this.paramToLvt[i]] = i;
+        }
+    }
+
+    static MethodSlotLayout of(final MethodData method) {
+        final Key key = new Key(method.descriptorText(), method.isStatic());
+        final MethodSlotLayout layout = LAYOUTS.get(key);
+        if (layout != null) {
+            return layout;
+        }
+        return LAYOUTS.computeIfAbsent(key, k -> new MethodSlotLayout(method.params(), k.isStatic()));
+    }
+
+    /**
+     * Returns the parameter index stored in {@code lvtIndex}, or -1 if the slot doesn't hold a parameter.
+     */
+    int lvtToParam(final int lvtIndex) {
+        return lvtIndex >= 0 && lvtIndex < this.lvtToParam.length ? this.lvtToParam[lvtIndex] : -1;
+    }
+
+    /**
+     * Returns the LVT slot of the parameter at {@code paramIndex}, or -1 if there is no such parameter.
+     */
+    int paramToLvt(final int paramIndex) {
+        return paramIndex >= 0 && paramIndex < this.paramToLvt.length ? this.paramToLvt[paramIndex] : -1;
+    }
+
+    private record Key(String descriptor, boolean isStatic) {}
+}
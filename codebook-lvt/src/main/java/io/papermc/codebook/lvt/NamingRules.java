@@ -0,0 +1,369 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.lvt;
+
+import io.papermc.codebook.lvt.suggestion.SuggesterCriteria;
+import io.papermc.codebook.lvt.suggestion.SuggesterCriteria.ReturnKind;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Rules which name locals after the method call they are assigned from, see {@code naming-rules.txt} next to this class
+ * for the format and the built-in rules. Each section of rules is compiled into a map of exact method names and a trie
+ * of name prefixes, so finding the first matching rule for a call doesn't need to check every rule.
+ */
+public final class NamingRules {
+
+    private static final String DEFAULT_RULES = "naming-rules.txt";
+    private static @Nullable NamingRules defaults;
+
+    private final Map<String, Section> sections;
+    private final byte[] hash;
+
+    private NamingRules(final Map<String, Section> sections, final byte[] hash) {
+        this.sections = sections;
+        this.hash = hash;
+    }
+
+    /**
+     * Returns the rules which are built into codebook.
+     */
+    public static synchronized NamingRules defaults() {
+        if (defaults == null) {
+            try (final InputStream in = Objects.requireNonNull(
+                    NamingRules.class.getResourceAsStream(DEFAULT_RULES), DEFAULT_RULES + " is missing")) {
+                defaults = parse(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return defaults;
+    }
+
+    public static NamingRules load(final Path file) throws IOException {
+        return parse(Files.readString(file));
+    }
+
+    /**
+     * Parses rules in the format of {@code naming-rules.txt}.
+     *
+     * @throws IllegalArgumentException If a line isn't a valid rule.
+     */
+    public static NamingRules parse(final String text) {
+        final Map<String, List<Rule>> rules = new LinkedHashMap<>();
+        @Nullable List<Rule> section = null;
+
+        final String[] lines = text.split("\r?\n", -1);
+        for (int i = 0; i < lines.length; i++) {
+            final String line = lines[i].strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            if (line.startsWith("[")) {
+                if (!line.endsWith("]") || line.length() == 2) {
+                    throw invalid(i, "invalid section header: " + line);
+                }
+                section = rules.computeIfAbsent(line.substring(1, line.length() - 1), k -> new ArrayList<>());
+                continue;
+            }
+            if (section == null) {
+                throw invalid(i, "rule outside of a section");
+            }
+            section.add(parseRule(i, line, section.size()));
+        }
+
+        final Map<String, Section> sections = new HashMap<>();
+        rules.forEach((name, sectionRules) -> sections.put(name, new Section(sectionRules)));
+        return new NamingRules(sections, sha256(text));
+    }
+
+    private static Rule parseRule(final int lineIndex, final String line, final int index) {
+        final int arrow = line.indexOf("->");
+        if (arrow == -1) {
+            throw invalid(lineIndex, "expected <owner> <method> <descriptor> -> <name>");
+        }
+        final String[] match = line.substring(0, arrow).strip().split("\\s+");
+        final String template = line.substring(arrow + 2).strip();
+        if (match.length != 3 || template.isEmpty() || template.chars().anyMatch(Character::isWhitespace)) {
+            throw invalid(lineIndex, "expected <owner> <method> <descriptor> -> <name>");
+        }
+
+        final String owner = match[0];
+        String method = match[1];
+        final boolean prefix = method.length() > 1 && method.endsWith("*");
+        if (prefix) {
+            method = method.substring(0, method.length() - 1);
+        }
+        if (method.contains("*") && !method.equals("*")) {
+            throw invalid(lineIndex, "* is only allowed at the end of a method name");
+        }
+
+        final String desc = match[2];
+        if (!desc.equals("*") && (!desc.startsWith("(") || desc.indexOf(')') == desc.length() - 1)) {
+            throw invalid(lineIndex, "invalid descriptor: " + desc);
+        }
+
+        final boolean usesMethodName = template.contains("{name}") || template.contains("{rest}");
+        if (template.replace("{name}", "").replace("{rest}", "").matches(".*[{}].*")) {
+            throw invalid(lineIndex, "unknown placeholder in name: " + template);
+        }
+
+        return new Rule(
+                index,
+                owner.equals("*") ? null : owner,
+                method.equals("*") ? null : method,
+                prefix,
+                desc.equals("*") ? null : desc,
+                template,
+                usesMethodName);
+    }
+
+    private static IllegalArgumentException invalid(final int lineIndex, final String message) {
+        return new IllegalArgumentException("line " + (lineIndex + 1) + ": " + message);
+    }
+
+    private static byte[] sha256(final String text) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Returns the rules in the section {@code name}, which are empty if there is no such section.
+     */
+    public Section section(final String name) {
+        return this.sections.getOrDefault(name, Section.EMPTY);
+    }
+
+    /**
+     * Returns a hash of the text the rules were parsed from.
+     */
+    public byte[] hash() {
+        return this.hash.clone();
+    }
+
+    public static final class Section {
+
+        private static final int[] NONE = new int[0];
+        private static final Section EMPTY = new Section(List.of());
+
+        private final List<Rule> rules;
+        private final Map<String, int[]> byName = new HashMap<>();
+        private final PrefixTrie<int[]> byPrefix = new PrefixTrie<>(NONE, Section::concat);
+        private final int[] anyName;
+        private final SuggesterCriteria criteria;
+
+        private Section(final List<Rule> rules) {
+            this.rules = rules;
+
+            final List<Integer> anyName = new ArrayList<>();
+            for (final Rule rule : rules) {
+                if (rule.method() == null) {
+                    anyName.add(rule.index());
+                } else if (rule.prefix()) {
+                    this.byPrefix.add(rule.method(), new int[] {rule.index()});
+                } else {
+                    this.byName.merge(rule.method(), new int[] {rule.index()}, Section::concat);
+                }
+            }
+            this.anyName = anyName.stream().mapToInt(Integer::intValue).toArray();
+            this.criteria = criteria(rules);
+        }
+
+        private static int[] concat(final int[] a, final int[] b) {
+            final int[] result = Arrays.copyOf(a, a.length + b.length);
+            System.arraycopy(b, 0, result, a.length, b.length);
+            return result;
+        }
+
+        private static SuggesterCriteria criteria(final List<Rule> rules) {
+            @Nullable Set<String> owners = new HashSet<>();
+            @Nullable Set<String> names = new HashSet<>();
+            @Nullable Set<String> prefixes = new HashSet<>();
+            boolean allBoolean = true;
+            boolean allPrimitive = true;
+            for (final Rule rule : rules) {
+                if (owners != null) {
+                    if (rule.owner() == null) {
+                        owners = null;
+                    } else {
+                        owners.add(rule.owner());
+                    }
+                }
+
+                if (rule.method() == null) {
+                    names = null;
+                    prefixes = null;
+                } else if (names != null && prefixes != null) {
+                    (rule.prefix() ? prefixes : names).add(rule.method());
+                }
+
+                final @Nullable String returnType = rule.returnType();
+                allBoolean &= "Z".equals(returnType);
+                allPrimitive &= returnType != null && returnType.length() == 1 && !returnType.equals("V");
+            }
+
+            final ReturnKind returns =
+                    allBoolean ? ReturnKind.BOOLEAN : allPrimitive ? ReturnKind.PRIMITIVE : ReturnKind.ANY;
+            return new SuggesterCriteria(
+                    owners != null ? Set.copyOf(owners) : null,
+                    names != null ? Set.copyOf(names) : null,
+                    prefixes != null ? Set.copyOf(prefixes) : null,
+                    returns);
+        }
+
+        /**
+         * Returns the calls these rules could match, for {@link io.papermc.codebook.lvt.suggestion.LvtSuggester#criteria()}.
+         */
+        public SuggesterCriteria criteria() {
+            return this.criteria;
+        }
+
+        /**
+         * Returns the first rule which matches a call to {@code name} with descriptor {@code desc} on {@code owner}.
+         */
+        public @Nullable Match match(final String owner, final String name, final String desc) {
+            int first = this.first(this.byName.getOrDefault(name, NONE), owner, desc, Integer.MAX_VALUE);
+            first = this.first(this.anyName, owner, desc, first);
+
+            PrefixTrie.Node<int[]> node = this.byPrefix.root();
+            // prefixes only match longer names
+            for (int i = 0; i < name.length() - 1; i++) {
+                final PrefixTrie.@Nullable Node<int[]> child = node.find(name.charAt(i));
+                if (child == null) {
+                    break;
+                }
+                node = child;
+                first = this.first(node.value(), owner, desc, first);
+            }
+
+            return first == Integer.MAX_VALUE ? null : new Match(this.rules.get(first), name);
+        }
+
+        /**
+         * Returns the name the first rule which matches a call gives the local, see {@link #match}.
+         */
+        public @Nullable String name(final String owner, final String name, final String desc) {
+            final @Nullable Match match = this.match(owner, name, desc);
+            return match != null ? match.name() : null;
+        }
+
+        private int first(final int[] candidates, final String owner, final String desc, final int first) {
+            for (final int candidate : candidates) {
+                if (candidate >= first) {
+                    break;
+                }
+                if (this.rules.get(candidate).matches(owner, desc)) {
+                    return candidate;
+                }
+            }
+            return first;
+        }
+    }
+
+    /**
+     * A rule which matched a call to the method {@code methodName}.
+     */
+    public record Match(Rule rule, String methodName) {
+
+        /**
+         * Returns the name the rule gives the local, or {@code null} if it doesn't give one for this method.
+         */
+        public @Nullable String name() {
+            if (!this.rule.usesMethodName()) {
+                return this.rule.template();
+            }
+
+            final int restStart = this.rule.prefix() && this.rule.method() != null
+                    ? this.rule.method().length()
+                    : this.methodName.length();
+            if (restStart >= this.methodName.length() || !Character.isUpperCase(this.methodName.charAt(restStart))) {
+                return null;
+            }
+            return this.rule
+                    .template()
+                    .replace("{name}", this.methodName)
+                    .replace("{rest}", LvtUtil.parseSimpleTypeName(this.methodName.substring(restStart)));
+        }
+    }
+
+    /**
+     * A single rule.
+     *
+     * @param index The position of the rule in its section.
+     * @param owner The owner of matching methods, or {@code null} for any owner.
+     * @param method The name or prefix of matching methods, or {@code null} for any name.
+     * @param prefix Whether {@code method} is a prefix.
+     * @param desc The descriptor of matching methods, starting with {@code (*)} if only the return type is matched, or
+     *     {@code null} for any descriptor.
+     * @param template The name given to locals, which may contain placeholders.
+     * @param usesMethodName Whether {@code template} contains placeholders.
+     */
+    public record Rule(
+            int index,
+            @Nullable String owner,
+            @Nullable String method,
+            boolean prefix,
+            @Nullable String desc,
+            String template,
+            boolean usesMethodName) {
+
+        boolean matches(final String owner, final String desc) {
+            if (this.owner != null && !this.owner.equals(owner)) {
+                return false;
+            }
+            if (this.desc == null) {
+                return true;
+            }
+            if (this.desc.startsWith("(*)")) {
+                return desc.regionMatches(desc.indexOf(')') + 1, this.desc, 3, this.desc.length() - 3)
+                        && desc.length() - desc.indexOf(')') == this.desc.length() - 2;
+            }
+            return this.desc.equals(desc);
+        }
+
+        @Nullable
+        String returnType() {
+            return this.desc == null ? null : this.desc.substring(this.desc.lastIndexOf(')') + 1);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.lvt;
+
+import dev.denwav.hypo.asm.AsmMethodData;
+import dev.denwav.hypo.hydrate.generic.HypoHydration;
+import dev.denwav.hypo.hydrate.generic.LambdaClosure;
+import dev.denwav.hypo.hydrate.generic.LocalClassClosure;
+import dev.denwav.hypo.model.data.MethodData;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.objectweb.asm.tree.LocalVariableNode;
+import org.objectweb.asm.tree.MethodNode;
+
+/**
+ * Renames of variables in outer scopes, which are needed when a local class has a field with the same name as a
+ * variable it captures. Renames are only recorded while methods are named, and written to the outer methods in one pass
+ * per method by {@link #apply()}. Until then, {@link #nameOf(MethodData, LocalVariableNode)} gives the name a variable
+ * will have, so naming sees the same names as if every rename was written right away.
+ */
+final class OuterScopeRenames {
+
+    private final Map<MethodData, List<Rename>> renames = new LinkedHashMap<>();
+    private final Map<MethodData, List<ClosureInfo>> outerClosures = new HashMap<>();
+
+    /**
+     * Renames the variable named {@code badName} in slot {@code lvtIndex} of {@code containing} to {@code newName}, and
+     * the variables it was captured from in the outer scopes of {@code containing}.
+     */
+    void rename(final MethodData containing, final String badName, final String newName, final int lvtIndex) {
+        this.renames.computeIfAbsent(containing, k -> new ArrayList<>()).add(new Rename(lvtIndex, badName, newName));
+
+        // names picked after this must not clash with the new name, so the scope is updated right away
+        final @Nullable ScopedNames containingScope = containing.get(LvtNamer.SCOPED_NAMES);
+        // should never be null
+        if (containingScope != null) {
+            containingScope.add(newName);
+        }
+
+        for (final ClosureInfo closure :
+                this.outerClosures.computeIfAbsent(containing, OuterScopeRenames::closuresOf)) {
+            if (closure.paramLvtIndices().length > lvtIndex) {
+                this.rename(closure.containing(), badName, newName, closure.paramLvtIndices()[lvtIndex]);
+            }
+        }
+    }
+
+    /**
+     * Returns the name {@code lvt} of {@code method} will have once the recorded renames are applied.
+     */
+    String nameOf(final MethodData method, final LocalVariableNode lvt) {
+        final @Nullable List<Rename> methodRenames = this.renames.get(method);
+        return methodRenames == null ? lvt.name : renamed(methodRenames, lvt);
+    }
+
+    /**
+     * Writes all recorded renames to their methods.
+     */
+    void apply() {
+        this.renames.forEach((method, methodRenames) -> {
+            final MethodNode node = ((AsmMethodData) method).getNode();
+            for (final LocalVariableNode lvt : node.localVariables) {
+                lvt.name = renamed(methodRenames, lvt);
+            }
+
+            if (node.parameters != null) {
+                final MethodSlotLayout layout = MethodSlotLayout.of(method);
+                for (final Rename rename : methodRenames) {
+                    final int paramIndex = layout.lvtToParam(rename.lvtIndex());
+                    if (paramIndex != -1) {
+                        node.parameters.get(paramIndex).name = rename.newName();
+                    }
+                }
+            }
+        });
+        this.renames.clear();
+    }
+
+    private static String renamed(final List<Rename> methodRenames, final LocalVariableNode lvt) {
+        // later renames may apply to the result of earlier ones
+        String name = lvt.name;
+        for (final Rename rename : methodRenames) {
+            if (rename.lvtIndex() == lvt.index && rename.badName().equals(name)) {
+                name = rename.newName();
+            }
+        }
+        return name;
+    }
+
+    private static List<ClosureInfo> closuresOf(final MethodData containing) {
+        final @Nullable List<LambdaClosure> lambdas = containing.get(HypoHydration.LAMBDA_CALLS);
+        final @Nullable List<LocalClassClosure> localClasses = containing.get(HypoHydration.LOCAL_CLASSES);
+        final List<ClosureInfo> closures = new ArrayList<>(
+                (lambdas != null ? lambdas.size() : 0) + (localClasses != null ? localClasses.size() : 0));
+        if (lambdas != null) {
+            for (final LambdaClosure lambda : lambdas) {
+                if (!lambda.getContainingMethod().equals(containing)) {
+                    closures.add(new ClosureInfo(lambda.getContainingMethod(), lambda.getParamLvtIndices()));
+                }
+            }
+        }
+        if (localClasses != null) {
+            for (final LocalClassClosure localClass : localClasses) {
+                if (!localClass.getContainingMethod().equals(containing)) {
+                    closures.add(new ClosureInfo(localClass.getContainingMethod(), localClass.getParamLvtIndices()));
+                }
+            }
+        }
+        return closures;
+    }
+
+    private record Rename(int lvtIndex, String badName, String newName) {}
+
+    private record ClosureInfo(MethodData containing, int[] paramLvtIndices) {}
+}
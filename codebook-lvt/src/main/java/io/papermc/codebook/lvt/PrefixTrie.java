@@ -0,0 +1,102 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.lvt;
+
+import java.util.Arrays;
+import java.util.function.BinaryOperator;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A trie over the characters of prefixes, each node holds the values of the prefixes ending there. Values added for
+ * the same prefix are combined with the trie's merge function. Tries are built once and read often, nodes keep their
+ * few children in arrays.
+ */
+final class PrefixTrie<V> {
+
+    private final V empty;
+    private final BinaryOperator<V> merge;
+    private final Node<V> root;
+
+    PrefixTrie(final V empty, final BinaryOperator<V> merge) {
+        this.empty = empty;
+        this.merge = merge;
+        this.root = new Node<>(empty);
+    }
+
+    void add(final String prefix, final V value) {
+        Node<V> node = this.root;
+        for (int i = 0; i < prefix.length(); i++) {
+            node = node.child(prefix.charAt(i), this.empty);
+        }
+        node.value = this.merge.apply(node.value, value);
+    }
+
+    /**
+     * Returns the node of the empty prefix, walk down from it with {@link Node#find(char)}.
+     */
+    Node<V> root() {
+        return this.root;
+    }
+
+    static final class Node<V> {
+        private V value;
+        private char[] chars = new char[0];
+        private @Nullable Node<V>[] children = newArray(0);
+
+        private Node(final V value) {
+            this.value = value;
+        }
+
+        V value() {
+            return this.value;
+        }
+
+        @Nullable
+        Node<V> find(final char c) {
+            for (int i = 0; i < this.chars.length; i++) {
+                if (this.chars[i] == c) {
+                    return this.children[i];
+                }
+            }
+            return null;
+        }
+
+        private Node<V> child(final char c, final V empty) {
+            final @Nullable Node<V> existing = this.find(c);
+            if (existing != null) {
+                return existing;
+            }
+            final Node<V> child = new Node<>(empty);
+            this.chars = Arrays.copyOf(this.chars, this.chars.length + 1);
+            this.children = Arrays.copyOf(this.children, this.children.length + 1);
+            this.chars[this.chars.length - 1] = c;
+            this.children[this.children.length - 1] = child;
+            return child;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <V> @Nullable Node<V>[] newArray(final int length) {
+            return (Node<V>[]) new Node<?>[length];
+        }
+    }
+}
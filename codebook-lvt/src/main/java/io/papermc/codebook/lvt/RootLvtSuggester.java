@@ -54,7 +54,10 @@ import io.papermc.codebook.lvt.suggestion.numbers.RandomSourceSuggester;
 import io.papermc.codebook.report.type.MissingMethodLvtSuggestion;
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.objectweb.asm.Opcodes;
@@ -69,7 +72,7 @@ public final class RootLvtSuggester extends AbstractModule implements LvtSuggest
     // the order of these is somewhat important. Generally, owning-class-specific suggesters
     // should be first, like RandomSource or Mth. Then more general suggesters that only check
     // the method name should follow.
-    private static final List<Class<? extends LvtSuggester>> SUGGESTERS = List.of(
+    static final List<Class<? extends LvtSuggester>> SUGGESTERS = List.of(
             RandomSourceSuggester.class,
             MthRandomSuggester.class,
             MathSuggester.class,
@@ -86,25 +89,68 @@ public final class RootLvtSuggester extends AbstractModule implements LvtSuggest
 
     private final HypoContext hypoContext;
     private final LvtTypeSuggester lvtTypeSuggester;
+    private final NamingRules namingRules;
     private final Injector injector;
     private final List<? extends LvtSuggester> suggesters;
+    private final SuggesterIndex suggesterIndex;
+    // the context doesn't change while naming, so neither does what a call resolves to
+    private final Map<MethodRef, Resolution> resolutions = new ConcurrentHashMap<>();
+    // the suggesters which are context-free, and what they suggest for each called method
+    private final long contextFree;
+    private final Map<CallTarget, ContextFreeHit> contextFreeHits = new ConcurrentHashMap<>();
+    private final @Nullable LvtTrace trace;
 
     public RootLvtSuggester(
             final HypoContext hypoContext, final LvtTypeSuggester lvtTypeSuggester, final Injector reports) {
+        this(hypoContext, lvtTypeSuggester, reports, NamingRules.defaults(), null);
+    }
+
+    public RootLvtSuggester(
+            final HypoContext hypoContext,
+            final LvtTypeSuggester lvtTypeSuggester,
+            final Injector reports,
+            final NamingRules namingRules,
+            final @Nullable LvtTrace trace) {
+        this.trace = trace;
         this.hypoContext = hypoContext;
         this.lvtTypeSuggester = lvtTypeSuggester;
+        this.namingRules = namingRules;
         this.injector = reports.createChildInjector(this);
         this.suggesters = SUGGESTERS.stream().map(this.injector::getInstance).toList();
+        this.suggesterIndex = new SuggesterIndex(this.suggesters);
+
+        long contextFree = 0;
+        for (int i = 0; i < this.suggesters.size(); i++) {
+            if (this.suggesters.get(i).isContextFree()) {
+                contextFree |= 1L << i;
+            }
+        }
+        this.contextFree = contextFree;
     }
 
     @Override
     protected void configure() {
         this.bind(HypoContext.class).toInstance(this.hypoContext);
         this.bind(LvtTypeSuggester.class).toInstance(this.lvtTypeSuggester);
+        this.bind(NamingRules.class).toInstance(this.namingRules);
     }
 
     public String suggestName(
-            final MethodData parent, final MethodNode node, final LocalVariableNode lvt, final Set<String> scopedNames)
+            final MethodData parent, final MethodNode node, final LocalVariableNode lvt, final ScopedNames scopedNames)
+            throws IOException {
+        return this.suggestName(parent, lvt, scopedNames, slot -> findFirstStore(node, slot));
+    }
+
+    /**
+     * Suggests a name for {@code lvt}, using {@code firstStore} to look up the first store to a slot when the store
+     * doesn't directly precede the variable's start. This lets callers index the stores of a method once for all of
+     * its variables.
+     */
+    public String suggestName(
+            final MethodData parent,
+            final LocalVariableNode lvt,
+            final ScopedNames scopedNames,
+            final IntFunction<@Nullable VarInsnNode> firstStore)
             throws IOException {
         @Nullable VarInsnNode assignmentNode = null;
         // `insn` could represent the first instruction, so check if there actually is a previous instruction
@@ -124,18 +170,7 @@ public final class RootLvtSuggester extends AbstractModule implements LvtSuggest
         }
 
         if (assignmentNode == null) {
-            for (final AbstractInsnNode insn : node.instructions) {
-                final int op = insn.getOpcode();
-                if (op < Opcodes.ISTORE || op > Opcodes.ASTORE) {
-                    continue;
-                }
-
-                final var varInsn = (VarInsnNode) insn;
-                if (varInsn.var == lvt.index) {
-                    assignmentNode = varInsn;
-                    break;
-                }
-            }
+            assignmentNode = firstStore.apply(lvt.index);
         }
 
         if (assignmentNode != null) {
@@ -147,29 +182,39 @@ public final class RootLvtSuggester extends AbstractModule implements LvtSuggest
 
         // we couldn't determine a name from the assignment, so determine a name from the type
         final JvmType lvtType = toJvmType(lvt.desc);
-        return determineFinalName(this.lvtTypeSuggester.suggestNameFromType(lvtType), scopedNames);
+        final String typeName = this.lvtTypeSuggester.suggestNameFromType(lvtType);
+        if (this.trace != null) {
+            final LvtTrace.@Nullable Decision decision = this.trace.current();
+            if (decision != null) {
+                decision.picked(LvtTypeSuggester.class, typeName);
+            }
+        }
+        return determineFinalName(typeName, scopedNames);
     }
 
-    public static String determineFinalName(final String suggestedName, final Set<String> scopedNames) {
+    private static @Nullable VarInsnNode findFirstStore(final MethodNode node, final int slot) {
+        for (final AbstractInsnNode insn : node.instructions) {
+            final int op = insn.getOpcode();
+            if (op < Opcodes.ISTORE || op > Opcodes.ASTORE) {
+                continue;
+            }
+
+            final var varInsn = (VarInsnNode) insn;
+            if (varInsn.var == slot) {
+                return varInsn;
+            }
+        }
+        return null;
+    }
+
+    public static String determineFinalName(final String suggestedName, final ScopedNames scopedNames) {
         final String name;
         if (JAVA_KEYWORDS.contains(suggestedName)) {
             name = "_" + suggestedName;
         } else {
             name = suggestedName;
         }
-
-        if (scopedNames.add(name)) {
-            return name;
-        }
-
-        int counter = 1;
-        while (true) {
-            final String nextSuggestedName = name + counter;
-            if (scopedNames.add(nextSuggestedName)) {
-                return nextSuggestedName;
-            }
-            counter++;
-        }
+        return scopedNames.claim(name);
     }
 
     private static final Set<BoxMethod> BOX_METHODS = Set.of(
@@ -226,13 +271,10 @@ public final class RootLvtSuggester extends AbstractModule implements LvtSuggest
 
         final MethodInsnNode methodInsnNode = (MethodInsnNode) prev;
 
-        final @Nullable ClassData owner = this.hypoContext.getContextProvider().findClass(methodInsnNode.owner);
-        if (owner == null) {
-            return null;
-        }
-        final @Nullable MethodData method =
-                findMethod(owner, methodInsnNode.name, parseDescriptor(methodInsnNode.desc));
-        if (method == null) {
+        final Resolution resolution = this.resolve(methodInsnNode);
+        final @Nullable ClassData owner = resolution.owner();
+        final @Nullable MethodData method = resolution.method();
+        if (owner == null || method == null) {
             return null;
         }
 
@@ -242,13 +284,50 @@ public final class RootLvtSuggester extends AbstractModule implements LvtSuggest
                 ContainerContext.from(parent));
     }
 
+    private Resolution resolve(final MethodInsnNode methodInsnNode) throws IOException {
+        final MethodRef ref = new MethodRef(methodInsnNode.owner, methodInsnNode.name, methodInsnNode.desc);
+        final @Nullable Resolution cached = this.resolutions.get(ref);
+        if (cached != null) {
+            return cached;
+        }
+
+        final @Nullable ClassData owner = this.hypoContext.getContextProvider().findClass(methodInsnNode.owner);
+        final @Nullable MethodData method =
+                owner != null ? findMethod(owner, methodInsnNode.name, parseDescriptor(methodInsnNode.desc)) : null;
+        // calls which can't be resolved are cached as well, so they aren't looked up again either
+        final Resolution resolution = method != null ? new Resolution(owner, method) : Resolution.NONE;
+        final @Nullable Resolution existing = this.resolutions.putIfAbsent(ref, resolution);
+        return existing != null ? existing : resolution;
+    }
+
     @Override
     public @Nullable String suggestFromMethod(
             final MethodCallContext call, final MethodInsnContext insn, final ContainerContext container)
             throws IOException {
-        @Nullable String suggestion;
-        for (final LvtSuggester delegate : this.suggesters) {
-            suggestion = delegate.suggestFromMethod(call, insn, container);
+        final LvtTrace.@Nullable Decision decision = this.trace != null ? this.trace.current() : null;
+        // only call the suggesters which could match, in the order they are listed in
+        long candidates = this.suggesterIndex.candidates(
+                insn.owner().name(), call.data().name(), call.data().returnType());
+        final ContextFreeHit hit = (candidates & this.contextFree) != 0
+                ? this.contextFreeHit(call, insn, container, candidates & this.contextFree)
+                : ContextFreeHit.NONE;
+        while (candidates != 0) {
+            final int index = Long.numberOfTrailingZeros(candidates);
+            candidates &= candidates - 1;
+            final LvtSuggester delegate = this.suggesters.get(index);
+            final @Nullable String suggestion;
+            if ((this.contextFree & (1L << index)) != 0) {
+                suggestion = index == hit.index() ? hit.suggestion() : null;
+            } else {
+                suggestion = delegate.suggestFromMethod(call, insn, container);
+            }
+            if (decision != null) {
+                if (suggestion != null) {
+                    decision.picked(delegate.getClass(), suggestion);
+                } else {
+                    decision.tried(delegate.getClass());
+                }
+            }
             if (suggestion != null) {
                 return suggestion;
             }
@@ -259,6 +338,36 @@ public final class RootLvtSuggester extends AbstractModule implements LvtSuggest
         return null;
     }
 
+    /**
+     * Returns the first of the context-free suggesters in {@code contextFree} which suggests a name for the called
+     * method. This only depends on the method and the owner it's called on, so it's only determined once for each.
+     */
+    private ContextFreeHit contextFreeHit(
+            final MethodCallContext call,
+            final MethodInsnContext insn,
+            final ContainerContext container,
+            long contextFree)
+            throws IOException {
+        final CallTarget target = new CallTarget(call.data(), insn.owner());
+        final @Nullable ContextFreeHit cached = this.contextFreeHits.get(target);
+        if (cached != null) {
+            return cached;
+        }
+
+        ContextFreeHit hit = ContextFreeHit.NONE;
+        while (contextFree != 0) {
+            final int index = Long.numberOfTrailingZeros(contextFree);
+            contextFree &= contextFree - 1;
+            final @Nullable String suggestion = this.suggesters.get(index).suggestFromMethod(call, insn, container);
+            if (suggestion != null) {
+                hit = new ContextFreeHit(index, suggestion);
+                break;
+            }
+        }
+        final @Nullable ContextFreeHit existing = this.contextFreeHits.putIfAbsent(target, hit);
+        return existing != null ? existing : hit;
+    }
+
     @Override
     public @Nullable String suggestFromField(
             final FieldCallContext call, final FieldInsnContext insn, final ContainerContext container)
@@ -273,7 +382,7 @@ public final class RootLvtSuggester extends AbstractModule implements LvtSuggest
         return null;
     }
 
-    private static @Nullable MethodData findMethod(
+    static @Nullable MethodData findMethod(
             final @Nullable ClassData data, final String name, final MethodDescriptor desc) throws IOException {
         if (data == null) {
             return null;
@@ -369,4 +478,16 @@ public final class RootLvtSuggester extends AbstractModule implements LvtSuggest
             "var",
             "with",
             "yield");
+
+    private record MethodRef(String owner, String name, String desc) {}
+
+    private record Resolution(@Nullable ClassData owner, @Nullable MethodData method) {
+        static final Resolution NONE = new Resolution(null, null);
+    }
+
+    private record CallTarget(MethodData method, ClassData owner) {}
+
+    private record ContextFreeHit(int index, @Nullable String suggestion) {
+        static final ContextFreeHit NONE = new ContextFreeHit(-1, null);
+    }
 }
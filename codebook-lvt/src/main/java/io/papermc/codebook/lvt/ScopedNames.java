@@ -0,0 +1,131 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.lvt;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * The names used in a method's scope. A nested scope only stores the names it adds itself and links to its outer
+ * scope, but behaves as if it started out as a copy of it: names the outer scope gains afterwards are not visible in
+ * the nested scope. Removing names is not supported.
+ */
+public final class ScopedNames extends AbstractSet<String> {
+
+    private final @Nullable ScopedNames parent;
+    // the number of names in `parent` when this scope was created, later names aren't visible to this scope
+    private final int parentSize;
+
+    private final Map<String, Integer> indices = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    // the lowest suffix per base name which may still be free in this scope
+    private final Map<String, Integer> suffixes = new HashMap<>();
+
+    private ScopedNames(final @Nullable ScopedNames parent) {
+        this.parent = parent;
+        this.parentSize = parent != null ? parent.names.size() : 0;
+    }
+
+    public static ScopedNames root() {
+        return new ScopedNames(null);
+    }
+
+    /**
+     * Creates a scope starting with the names currently visible in {@code parent}.
+     */
+    public ScopedNames nested() {
+        return new ScopedNames(this);
+    }
+
+    @Override
+    public boolean contains(final Object o) {
+        return o instanceof final String name && this.contains(name, this.names.size());
+    }
+
+    private boolean contains(final String name, final int limit) {
+        final @Nullable Integer index = this.indices.get(name);
+        if (index != null && index < limit) {
+            return true;
+        }
+        return this.parent != null && this.parent.contains(name, this.parentSize);
+    }
+
+    @Override
+    public boolean add(final String name) {
+        if (this.contains(name)) {
+            return false;
+        }
+        this.indices.put(name, this.names.size());
+        this.names.add(name);
+        return true;
+    }
+
+    /**
+     * Adds {@code name} to this scope if it's unused, otherwise the first unused name made of {@code name} followed by
+     * a number, starting at 1. Returns the added name.
+     */
+    public String claim(final String name) {
+        if (this.add(name)) {
+            return name;
+        }
+
+        // names are never removed, so suffixes which were used before are still used
+        int suffix = this.suffixes.getOrDefault(name, 1);
+        String candidate = name + suffix;
+        while (!this.add(candidate)) {
+            suffix++;
+            candidate = name + suffix;
+        }
+        this.suffixes.put(name, suffix + 1);
+        return candidate;
+    }
+
+    @Override
+    public int size() {
+        return this.size(this.names.size());
+    }
+
+    private int size(final int limit) {
+        return limit + (this.parent != null ? this.parent.size(this.parentSize) : 0);
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        final List<String> visible = new ArrayList<>(this.size());
+        this.collect(visible, this.names.size());
+        return Collections.unmodifiableList(visible).iterator();
+    }
+
+    private void collect(final List<String> into, final int limit) {
+        if (this.parent != null) {
+            this.parent.collect(into, this.parentSize);
+        }
+        into.addAll(this.names.subList(0, limit));
+    }
+}
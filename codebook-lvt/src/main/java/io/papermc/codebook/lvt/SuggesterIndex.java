@@ -0,0 +1,143 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.lvt;
+
+import dev.denwav.hypo.model.data.types.JvmType;
+import dev.denwav.hypo.model.data.types.PrimitiveType;
+import io.papermc.codebook.lvt.suggestion.LvtSuggester;
+import io.papermc.codebook.lvt.suggestion.SuggesterCriteria;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Finds the suggesters whose {@link LvtSuggester#criteria() criteria} match a method call. Suggesters are identified by
+ * their position in the list the index was built from, a set of suggesters is a bit mask, so iterating the set bits from
+ * the lowest one keeps the order of the list.
+ */
+final class SuggesterIndex {
+
+    private final long anyOwner;
+    private final Map<String, Long> byOwner = new HashMap<>();
+
+    private final long anyName;
+    private final Map<String, Long> byName = new HashMap<>();
+    private final PrefixTrie<Long> byPrefix = new PrefixTrie<>(0L, (a, b) -> a | b);
+
+    private final long anyReturn;
+    private final long primitiveReturn;
+    private final long booleanReturn;
+
+    SuggesterIndex(final List<? extends LvtSuggester> suggesters) {
+        if (suggesters.size() > Long.SIZE) {
+            throw new IllegalArgumentException("Too many suggesters: " + suggesters.size());
+        }
+
+        long anyOwner = 0;
+        long anyName = 0;
+        long anyReturn = 0;
+        long primitiveReturn = 0;
+        long booleanReturn = 0;
+        for (int i = 0; i < suggesters.size(); i++) {
+            final long bit = 1L << i;
+            final SuggesterCriteria criteria = suggesters.get(i).criteria();
+
+            if (criteria.owners() == null) {
+                anyOwner |= bit;
+            } else {
+                for (final String owner : criteria.owners()) {
+                    this.byOwner.merge(owner, bit, (a, b) -> a | b);
+                }
+            }
+
+            if (criteria.matchesAnyName()) {
+                anyName |= bit;
+            } else {
+                if (criteria.names() != null) {
+                    for (final String name : criteria.names()) {
+                        this.byName.merge(name, bit, (a, b) -> a | b);
+                    }
+                }
+                if (criteria.prefixes() != null) {
+                    for (final String prefix : criteria.prefixes()) {
+                        this.byPrefix.add(prefix, bit);
+                    }
+                }
+            }
+
+            switch (criteria.returns()) {
+                case ANY -> anyReturn |= bit;
+                case PRIMITIVE -> primitiveReturn |= bit;
+                case BOOLEAN -> booleanReturn |= bit;
+            }
+        }
+        this.anyOwner = anyOwner;
+        this.anyName = anyName;
+        this.anyReturn = anyReturn;
+        this.primitiveReturn = primitiveReturn;
+        this.booleanReturn = booleanReturn;
+    }
+
+    /**
+     * Returns the set of suggesters which could suggest a name for a call to the method {@code name} in {@code owner}
+     * which returns {@code returnType}.
+     */
+    long candidates(final String owner, final String name, final JvmType returnType) {
+        long candidates = this.anyOwner | this.byOwner.getOrDefault(owner, 0L);
+        if (candidates == 0) {
+            return 0;
+        }
+
+        candidates &= this.anyName | this.byName.getOrDefault(name, 0L) | this.matchPrefixes(name);
+        if (candidates == 0) {
+            return 0;
+        }
+
+        long returns = this.anyReturn;
+        if (returnType instanceof PrimitiveType) {
+            returns |= this.primitiveReturn;
+            if (returnType == PrimitiveType.BOOLEAN) {
+                returns |= this.booleanReturn;
+            }
+        }
+        return candidates & returns;
+    }
+
+    /**
+     * Returns the suggesters with a prefix {@code name} starts with.
+     */
+    private long matchPrefixes(final String name) {
+        PrefixTrie.Node<Long> node = this.byPrefix.root();
+        long mask = node.value();
+        for (int i = 0; i < name.length(); i++) {
+            final PrefixTrie.@Nullable Node<Long> child = node.find(name.charAt(i));
+            if (child == null) {
+                break;
+            }
+            node = child;
+            mask |= node.value();
+        }
+        return mask;
+    }
+}
@@ -24,6 +24,7 @@ package io.papermc.codebook.lvt.suggestion;
 
 import static io.papermc.codebook.lvt.LvtUtil.staticFinalFieldNameToLocalName;
 
+import io.papermc.codebook.lvt.suggestion.SuggesterCriteria.ReturnKind;
 import io.papermc.codebook.lvt.suggestion.context.ContainerContext;
 import io.papermc.codebook.lvt.suggestion.context.method.MethodCallContext;
 import io.papermc.codebook.lvt.suggestion.context.method.MethodInsnContext;
@@ -31,6 +32,7 @@ import java.io.IOException;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.stream.Collectors;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.tree.AbstractInsnNode;
@@ -52,6 +54,17 @@ public class ComplexGetSuggester implements LvtSuggester {
                     "Lnet/minecraft/world/level/block/state/properties/BooleanProperty;"),
             "Value");
 
+    private static final SuggesterCriteria CRITERIA = new SuggesterCriteria(
+            BLOCK_STATE_PROPERTY.owners(),
+            BLOCK_STATE_PROPERTY.methods().stream().map(Entry::getKey).collect(Collectors.toUnmodifiableSet()),
+            null,
+            ReturnKind.ANY);
+
+    @Override
+    public SuggesterCriteria criteria() {
+        return CRITERIA;
+    }
+
     @Override
     public @Nullable String suggestFromMethod(
             final MethodCallContext call, final MethodInsnContext insn, final ContainerContext container)
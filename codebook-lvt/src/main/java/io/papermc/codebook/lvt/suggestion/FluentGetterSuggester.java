@@ -23,6 +23,7 @@
 package io.papermc.codebook.lvt.suggestion;
 
 import dev.denwav.hypo.model.data.types.PrimitiveType;
+import io.papermc.codebook.lvt.suggestion.SuggesterCriteria.ReturnKind;
 import io.papermc.codebook.lvt.suggestion.context.ContainerContext;
 import io.papermc.codebook.lvt.suggestion.context.method.MethodCallContext;
 import io.papermc.codebook.lvt.suggestion.context.method.MethodInsnContext;
@@ -53,6 +54,13 @@ public class FluentGetterSuggester implements LvtSuggester {
         i -> i == Opcodes.ALOAD, i -> i == Opcodes.GETFIELD, i -> i >= Opcodes.IRETURN && i <= Opcodes.RETURN
     };
 
+    private static final SuggesterCriteria CRITERIA = SuggesterCriteria.any().withReturns(ReturnKind.PRIMITIVE);
+
+    @Override
+    public SuggesterCriteria criteria() {
+        return CRITERIA;
+    }
+
     @Override
     public @Nullable String suggestFromMethod(
             final MethodCallContext call, final MethodInsnContext insn, final ContainerContext container)
@@ -22,23 +22,36 @@
 
 package io.papermc.codebook.lvt.suggestion;
 
+import io.papermc.codebook.lvt.NamingRules;
 import io.papermc.codebook.lvt.suggestion.context.ContainerContext;
 import io.papermc.codebook.lvt.suggestion.context.method.MethodCallContext;
 import io.papermc.codebook.lvt.suggestion.context.method.MethodInsnContext;
+import jakarta.inject.Inject;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 public class GenericSuggester implements LvtSuggester {
 
+    private final NamingRules.Section rules;
+
+    @Inject
+    GenericSuggester(final NamingRules rules) {
+        this.rules = rules.section("generic");
+    }
+
+    @Override
+    public SuggesterCriteria criteria() {
+        return this.rules.criteria();
+    }
+
+    @Override
+    public boolean isContextFree() {
+        return true;
+    }
+
     @Override
     public @Nullable String suggestFromMethod(
             final MethodCallContext call, final MethodInsnContext insn, final ContainerContext container) {
-        return switch (call.data().name()) {
-            case "hashCode" -> "hashCode";
-            case "size" -> "size";
-            case "length" -> "len";
-            case "freeze" -> "frozen";
-            case "readLine" -> "line";
-            default -> null;
-        };
+        return this.rules.name(
+                insn.owner().name(), call.data().name(), call.data().descriptorText());
     }
 }
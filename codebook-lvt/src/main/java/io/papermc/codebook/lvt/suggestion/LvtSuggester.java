@@ -32,6 +32,23 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 
 public interface LvtSuggester {
 
+    /**
+     * Returns the method calls {@link #suggestFromMethod} could suggest a name for, calls which don't match aren't
+     * passed to this suggester.
+     */
+    default SuggesterCriteria criteria() {
+        return SuggesterCriteria.any();
+    }
+
+    /**
+     * Returns whether {@link #suggestFromMethod} only depends on the called method and the owner it's called on, and
+     * not on the instructions around the call or the method containing it. What context-free suggesters suggest for a
+     * method is only determined once.
+     */
+    default boolean isContextFree() {
+        return false;
+    }
+
     default @Nullable String suggestFromMethod(
             final MethodCallContext call, final MethodInsnContext insn, final ContainerContext container)
             throws IOException {
@@ -22,64 +22,36 @@
 
 package io.papermc.codebook.lvt.suggestion;
 
+import io.papermc.codebook.lvt.NamingRules;
 import io.papermc.codebook.lvt.suggestion.context.ContainerContext;
 import io.papermc.codebook.lvt.suggestion.context.method.MethodCallContext;
 import io.papermc.codebook.lvt.suggestion.context.method.MethodInsnContext;
-import java.io.IOException;
+import jakarta.inject.Inject;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 public class MathSuggester implements LvtSuggester {
 
-    @Override
-    public @Nullable String suggestFromMethod(
-            final MethodCallContext call, final MethodInsnContext insn, final ContainerContext container)
-            throws IOException {
-        final String methodName = call.data().name();
+    private final NamingRules.Section rules;
 
-        if (insn.ownerEqualTo("java/lang/Math")) {
-            return switch (methodName) {
-                case "max" -> "max";
-                case "min" -> "min";
-                case "sqrt" -> "squareRoot";
-                case "sin" -> "sin";
-                case "cos" -> "cos";
-                case "tan" -> "tan";
-                case "asin" -> "asin";
-                case "acos" -> "acos";
-                case "atan" -> "atan";
-                case "atan2" -> "atan2";
-                case "sinh" -> "sinh";
-                case "cosh" -> "cosh";
-                case "tanh" -> "tanh";
-                case "ceil" -> "ceil";
-                case "floor" -> "floor";
-                case "round" -> "rounded";
-                case "abs" -> "abs";
-                default -> null;
-            };
-        }
+    @Inject
+    MathSuggester(final NamingRules rules) {
+        this.rules = rules.section("math");
+    }
+
+    @Override
+    public SuggesterCriteria criteria() {
+        return this.rules.criteria();
+    }
 
-        if (insn.ownerEqualTo("net/minecraft/util/Mth")) {
-            return switch (methodName) {
-                case "abs" -> "abs";
-                case "absMax" -> "max";
-                case "sin" -> "sin";
-                case "cos" -> "cos";
-                case "sqrt" -> "squareRoot";
-                case "invSqrt", "fastInvSqrt" -> "inverseSquareRoot";
-                case "ceil" -> "ceil";
-                case "floor" -> "floor";
-                case "roundToward" -> "rounded";
-                case "square" -> "squared";
-                case "hsvToRgb" -> "rgb";
-                case "binarySearch" -> "index";
-                case "frac" -> "fraction";
-                case "color" -> "color";
-                case "equal" -> "isEqual";
-                default -> null;
-            };
-        }
+    @Override
+    public boolean isContextFree() {
+        return true;
+    }
 
-        return null;
+    @Override
+    public @Nullable String suggestFromMethod(
+            final MethodCallContext call, final MethodInsnContext insn, final ContainerContext container) {
+        return this.rules.name(
+                insn.owner().name(), call.data().name(), call.data().descriptorText());
     }
 }
@@ -33,6 +33,18 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 
 public class NewPrefixSuggester implements LvtSuggester {
 
+    private static final SuggesterCriteria CRITERIA = SuggesterCriteria.any().withPrefixes("new");
+
+    @Override
+    public SuggesterCriteria criteria() {
+        return CRITERIA;
+    }
+
+    @Override
+    public boolean isContextFree() {
+        return true;
+    }
+
     @Override
     public @Nullable String suggestFromMethod(
             final MethodCallContext call, final MethodInsnContext insn, final ContainerContext container)
@@ -50,6 +50,18 @@ import org.objectweb.asm.tree.VarInsnNode;
 
 public class PositionsSuggester implements LvtSuggester {
 
+    private static final SuggesterCriteria CRITERIA = SuggesterCriteria.any()
+            .withOwners(
+                    "net/minecraft/core/SectionPos",
+                    "net/minecraft/core/QuartPos",
+                    "net/minecraft/core/BlockPos",
+                    "net/minecraft/world/level/ChunkPos");
+
+    @Override
+    public SuggesterCriteria criteria() {
+        return CRITERIA;
+    }
+
     @Override
     public @Nullable String suggestFromMethod(
             final MethodCallContext call, final MethodInsnContext insn, final ContainerContext container)
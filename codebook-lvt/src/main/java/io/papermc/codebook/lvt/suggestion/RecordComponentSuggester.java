@@ -32,6 +32,11 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 
 public class RecordComponentSuggester implements LvtSuggester {
 
+    @Override
+    public boolean isContextFree() {
+        return true;
+    }
+
     @Override
     public @Nullable String suggestFromMethod(
             final MethodCallContext call, final MethodInsnContext insn, final ContainerContext container) {
@@ -31,6 +31,7 @@ import dev.denwav.hypo.model.data.MemberData;
 import dev.denwav.hypo.model.data.types.JvmType;
 import dev.denwav.hypo.model.data.types.PrimitiveType;
 import io.papermc.codebook.lvt.LvtTypeSuggester;
+import io.papermc.codebook.lvt.suggestion.SuggesterCriteria.ReturnKind;
 import io.papermc.codebook.lvt.suggestion.context.ContainerContext;
 import io.papermc.codebook.lvt.suggestion.context.method.MethodCallContext;
 import io.papermc.codebook.lvt.suggestion.context.method.MethodInsnContext;
@@ -46,6 +47,9 @@ import org.objectweb.asm.tree.FieldInsnNode;
 
 public class SingleVerbBooleanSuggester implements LvtSuggester {
 
+    private static final SuggesterCriteria CRITERIA =
+            SuggesterCriteria.any().withNames("is", "has").withReturns(ReturnKind.BOOLEAN);
+
     private final HypoContext hypoContext;
     private final LvtTypeSuggester lvtTypeSuggester;
 
@@ -55,6 +59,11 @@ public class SingleVerbBooleanSuggester implements LvtSuggester {
         this.lvtTypeSuggester = lvtTypeSuggester;
     }
 
+    @Override
+    public SuggesterCriteria criteria() {
+        return CRITERIA;
+    }
+
     @Override
     public @Nullable String suggestFromMethod(
             final MethodCallContext call, final MethodInsnContext insn, final ContainerContext container)
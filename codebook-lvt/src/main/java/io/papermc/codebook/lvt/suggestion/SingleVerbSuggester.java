@@ -23,37 +23,48 @@
 package io.papermc.codebook.lvt.suggestion;
 
 import static io.papermc.codebook.lvt.LvtUtil.parseSimpleTypeNameFromMethod;
-import static io.papermc.codebook.lvt.LvtUtil.tryMatchPrefix;
 
+import io.papermc.codebook.lvt.NamingRules;
 import io.papermc.codebook.lvt.suggestion.context.ContainerContext;
 import io.papermc.codebook.lvt.suggestion.context.method.MethodCallContext;
 import io.papermc.codebook.lvt.suggestion.context.method.MethodInsnContext;
-import java.util.List;
+import jakarta.inject.Inject;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.LineNumberNode;
 import org.objectweb.asm.tree.MethodInsnNode;
 
 /*
-This matches against methods with a set prefix and trims that prefix off of the
-returned local variable name
+This matches against methods with a prefix from the single-verb naming rules and trims that
+prefix off of the returned local variable name
  */
 public class SingleVerbSuggester implements LvtSuggester {
 
-    private static final List<String> SINGLE_VERB_PREFIXES = List.of("getOrCreate", "get", "as", "read");
+    private final NamingRules.Section rules;
+
+    @Inject
+    SingleVerbSuggester(final NamingRules rules) {
+        this.rules = rules.section("single-verb");
+    }
+
+    @Override
+    public SuggesterCriteria criteria() {
+        return this.rules.criteria();
+    }
 
     @Override
     public @Nullable String suggestFromMethod(
             final MethodCallContext call, final MethodInsnContext insn, final ContainerContext container) {
         final String methodName = call.data().name();
 
-        final @Nullable String prefix = tryMatchPrefix(methodName, SINGLE_VERB_PREFIXES);
-        if (prefix == null) {
+        final NamingRules.@Nullable Match match =
+                this.rules.match(insn.owner().name(), methodName, call.data().descriptorText());
+        if (match == null) {
             return null;
         }
 
         final @Nullable String newName = handleForLoop(methodName, insn, "getMin", "getMax");
-        return newName != null ? newName : parseSimpleTypeNameFromMethod(methodName, prefix.length());
+        return newName != null ? newName : match.name();
     }
 
     public static @Nullable String handleForLoop(
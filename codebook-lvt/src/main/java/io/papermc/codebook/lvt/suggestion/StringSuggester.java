@@ -22,49 +22,36 @@
 
 package io.papermc.codebook.lvt.suggestion;
 
+import io.papermc.codebook.lvt.NamingRules;
 import io.papermc.codebook.lvt.suggestion.context.ContainerContext;
 import io.papermc.codebook.lvt.suggestion.context.method.MethodCallContext;
 import io.papermc.codebook.lvt.suggestion.context.method.MethodInsnContext;
-import java.io.IOException;
+import jakarta.inject.Inject;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 public class StringSuggester implements LvtSuggester {
 
-    @Override
-    public @Nullable String suggestFromMethod(
-            final MethodCallContext call, final MethodInsnContext insn, final ContainerContext container)
-            throws IOException {
-        final String methodName = call.data().name();
+    private final NamingRules.Section rules;
 
-        if (methodName.startsWith("split")) {
-            if (insn.ownerEqualTo("java/lang/String") || insn.ownerEqualTo("com/google/common/base/Splitter")) {
-                return "parts";
-            }
-        }
+    @Inject
+    StringSuggester(final NamingRules rules) {
+        this.rules = rules.section("string");
+    }
+
+    @Override
+    public SuggesterCriteria criteria() {
+        return this.rules.criteria();
+    }
 
-        if (methodName.equals("repeat")
-                && call.data().returnType().asInternalName().equals("Ljava/lang/String;")) {
-            return "repeated";
-        }
-        if (methodName.equals("indexOf") || methodName.equals("lastIndexOf")) {
-            return "index";
-        }
-        if (methodName.equals("substring")) {
-            return "sub";
-        }
-        if (methodName.equals("codePointAt")) {
-            return "code";
-        }
-        if (methodName.equals("trim")) {
-            return "trimmed";
-        }
-        if (methodName.startsWith("strip")) {
-            return "stripped";
-        }
-        if (methodName.equals("formatted")) {
-            return "formatted";
-        }
+    @Override
+    public boolean isContextFree() {
+        return true;
+    }
 
-        return null;
+    @Override
+    public @Nullable String suggestFromMethod(
+            final MethodCallContext call, final MethodInsnContext insn, final ContainerContext container) {
+        return this.rules.name(
+                insn.owner().name(), call.data().name(), call.data().descriptorText());
     }
 }
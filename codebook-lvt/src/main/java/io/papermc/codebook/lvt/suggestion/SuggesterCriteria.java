@@ -0,0 +1,85 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.lvt.suggestion;
+
+import dev.denwav.hypo.model.data.types.JvmType;
+import dev.denwav.hypo.model.data.types.PrimitiveType;
+import java.util.Set;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Describes which method calls an {@link LvtSuggester} could suggest a name for. Every call site the suggester returns
+ * a name for must match its criteria, so calls which don't match can skip the suggester without changing the result.
+ *
+ * <p>A call matches when its owner is one of {@link #owners()}, its name is one of {@link #names()} or starts with one
+ * of {@link #prefixes()}, and its return type matches {@link #returns()}. A {@code null} set matches anything, though a
+ * name only needs to match one of names and prefixes when both are given.
+ *
+ * @param owners The internal names of the owners of matching methods.
+ * @param names The exact names of matching methods.
+ * @param prefixes The prefixes of the names of matching methods.
+ * @param returns The kind of return type of matching methods.
+ */
+public record SuggesterCriteria(
+        @Nullable Set<String> owners, @Nullable Set<String> names, @Nullable Set<String> prefixes, ReturnKind returns) {
+
+    private static final SuggesterCriteria ANY = new SuggesterCriteria(null, null, null, ReturnKind.ANY);
+
+    public static SuggesterCriteria any() {
+        return ANY;
+    }
+
+    public SuggesterCriteria withOwners(final String... owners) {
+        return new SuggesterCriteria(Set.of(owners), this.names, this.prefixes, this.returns);
+    }
+
+    public SuggesterCriteria withNames(final String... names) {
+        return new SuggesterCriteria(this.owners, Set.of(names), this.prefixes, this.returns);
+    }
+
+    public SuggesterCriteria withPrefixes(final String... prefixes) {
+        return new SuggesterCriteria(this.owners, this.names, Set.of(prefixes), this.returns);
+    }
+
+    public SuggesterCriteria withReturns(final ReturnKind returns) {
+        return new SuggesterCriteria(this.owners, this.names, this.prefixes, returns);
+    }
+
+    public boolean matchesAnyName() {
+        return this.names == null && this.prefixes == null;
+    }
+
+    public enum ReturnKind {
+        ANY,
+        PRIMITIVE,
+        BOOLEAN;
+
+        public boolean matches(final JvmType returnType) {
+            return switch (this) {
+                case ANY -> true;
+                case PRIMITIVE -> returnType instanceof PrimitiveType;
+                case BOOLEAN -> returnType == PrimitiveType.BOOLEAN;
+            };
+        }
+    }
+}
@@ -22,13 +22,11 @@
 
 package io.papermc.codebook.lvt.suggestion;
 
-import static io.papermc.codebook.lvt.LvtUtil.tryMatchPrefix;
-
-import dev.denwav.hypo.model.data.types.PrimitiveType;
+import io.papermc.codebook.lvt.NamingRules;
 import io.papermc.codebook.lvt.suggestion.context.ContainerContext;
 import io.papermc.codebook.lvt.suggestion.context.method.MethodCallContext;
 import io.papermc.codebook.lvt.suggestion.context.method.MethodInsnContext;
-import java.util.List;
+import jakarta.inject.Inject;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 /*
@@ -37,25 +35,27 @@ including the prefix should be used as the local variable name.
  */
 public class VerbPrefixBooleanSuggester implements LvtSuggester {
 
-    private static final List<String> BOOL_METHOD_PREFIXES = List.of("is", "has", "can", "should");
+    private final NamingRules.Section rules;
+
+    @Inject
+    VerbPrefixBooleanSuggester(final NamingRules rules) {
+        this.rules = rules.section("boolean-verb");
+    }
+
+    @Override
+    public SuggesterCriteria criteria() {
+        return this.rules.criteria();
+    }
+
+    @Override
+    public boolean isContextFree() {
+        return true;
+    }
 
     @Override
     public @Nullable String suggestFromMethod(
             final MethodCallContext call, final MethodInsnContext insn, final ContainerContext container) {
-        if (call.data().returnType() != PrimitiveType.BOOLEAN) {
-            return null;
-        }
-        final String methodName = call.data().name();
-
-        final @Nullable String prefix = tryMatchPrefix(methodName, BOOL_METHOD_PREFIXES);
-        if (prefix == null) {
-            return null;
-        }
-
-        if (Character.isUpperCase(methodName.charAt(prefix.length()))) {
-            return methodName;
-        } else {
-            return null;
-        }
+        return this.rules.name(
+                insn.owner().name(), call.data().name(), call.data().descriptorText());
     }
 }
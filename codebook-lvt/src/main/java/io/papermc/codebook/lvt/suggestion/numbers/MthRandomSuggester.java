@@ -27,6 +27,8 @@ import static io.papermc.codebook.lvt.suggestion.numbers.RandomUtil.createNextRa
 
 import dev.denwav.hypo.model.data.types.JvmType;
 import io.papermc.codebook.lvt.suggestion.LvtSuggester;
+import io.papermc.codebook.lvt.suggestion.SuggesterCriteria;
+import io.papermc.codebook.lvt.suggestion.SuggesterCriteria.ReturnKind;
 import io.papermc.codebook.lvt.suggestion.context.ContainerContext;
 import io.papermc.codebook.lvt.suggestion.context.method.MethodCallContext;
 import io.papermc.codebook.lvt.suggestion.context.method.MethodInsnContext;
@@ -38,6 +40,19 @@ public class MthRandomSuggester implements LvtSuggester {
 
     static final String MTH_NAME = "net/minecraft/util/Mth";
 
+    private static final SuggesterCriteria CRITERIA =
+            SuggesterCriteria.any().withOwners(MTH_NAME).withPrefixes("next").withReturns(ReturnKind.PRIMITIVE);
+
+    @Override
+    public SuggesterCriteria criteria() {
+        return CRITERIA;
+    }
+
+    @Override
+    public boolean isContextFree() {
+        return true;
+    }
+
     @Override
     public @Nullable String suggestFromMethod(
             final MethodCallContext call, final MethodInsnContext insn, final ContainerContext container) {
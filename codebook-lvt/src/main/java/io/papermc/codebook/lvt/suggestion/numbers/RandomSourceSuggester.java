@@ -29,6 +29,8 @@ import dev.denwav.hypo.model.data.ClassData;
 import dev.denwav.hypo.model.data.types.ClassType;
 import dev.denwav.hypo.model.data.types.JvmType;
 import io.papermc.codebook.lvt.suggestion.LvtSuggester;
+import io.papermc.codebook.lvt.suggestion.SuggesterCriteria;
+import io.papermc.codebook.lvt.suggestion.SuggesterCriteria.ReturnKind;
 import io.papermc.codebook.lvt.suggestion.context.ContainerContext;
 import io.papermc.codebook.lvt.suggestion.context.method.MethodCallContext;
 import io.papermc.codebook.lvt.suggestion.context.method.MethodInsnContext;
@@ -41,6 +43,9 @@ public class RandomSourceSuggester implements LvtSuggester {
 
     static final JvmType RANDOM_SOURCE_TYPE = new ClassType("net/minecraft/util/RandomSource");
 
+    private static final SuggesterCriteria CRITERIA =
+            SuggesterCriteria.any().withPrefixes("next").withReturns(ReturnKind.PRIMITIVE);
+
     private final @Nullable ClassData randomSourceClass;
 
     @Inject
@@ -51,6 +56,16 @@ public class RandomSourceSuggester implements LvtSuggester {
         }
     }
 
+    @Override
+    public SuggesterCriteria criteria() {
+        return CRITERIA;
+    }
+
+    @Override
+    public boolean isContextFree() {
+        return true;
+    }
+
     @Override
     public @Nullable String suggestFromMethod(
             final MethodCallContext call, final MethodInsnContext insn, final ContainerContext container) {
@@ -114,27 +114,28 @@ public class MissingMethodParam implements Report {
             final MethodData method,
             final ClassData parentClass,
             final @Nullable MethodMapping methodMapping,
-            final @Nullable LocalClassClosure localClassClosure)
+            final @Nullable LocalClassClosure localClassClosure,
+            final IntUnaryOperator paramToLvtIndex)
             throws IOException {
         if (parentClass.is(ClassKind.ENUM)) {
             // enum constructors include name and ordinal
-            this.checkMappings(method, methodMapping, 2, i -> i + 1);
+            this.checkMappings(method, methodMapping, 2, paramToLvtIndex);
         } else {
             if (!ANONYMOUS_CLASS.matcher(parentClass.name()).matches()) {
                 // anonymous classes cannot have constructors in source
                 if (parentClass.outerClass() != null) {
                     final int descriptorParamOffset = parentClass.isStaticInnerClass() ? 0 : 1;
                     if (localClassClosure == null) {
-                        this.checkMappings(method, methodMapping, descriptorParamOffset, i -> i + 1);
+                        this.checkMappings(method, methodMapping, descriptorParamOffset, paramToLvtIndex);
                     } else {
                         this.checkMappings(
                                 method,
                                 methodMapping,
                                 descriptorParamOffset + localClassClosure.getParamLvtIndices().length,
-                                i -> i + 1);
+                                paramToLvtIndex);
                     }
                 } else {
-                    this.checkMappings(method, methodMapping, 0, i -> i + 1);
+                    this.checkMappings(method, methodMapping, 0, paramToLvtIndex);
                 }
             }
         }
@@ -148,16 +149,17 @@ public class MissingMethodParam implements Report {
             final @Nullable MethodMapping methodMapping,
             final int @Nullable [] outerMethodParamLvtIndices,
             final @Nullable LambdaClosure lambdaClosure,
-            final @Nullable LocalClassClosure localClassClosure)
+            final @Nullable LocalClassClosure localClassClosure,
+            final IntUnaryOperator paramToLvtIndex)
             throws IOException {
         if (shouldSkipMapping(method, parentClass, superClass, lambdaCalls)) {
             return;
         }
         if (method.isConstructor()) {
-            this.handleConstructorMappings(method, parentClass, methodMapping, localClassClosure);
+            this.handleConstructorMappings(method, parentClass, methodMapping, localClassClosure, paramToLvtIndex);
         } else {
             if (outerMethodParamLvtIndices == null) {
-                this.checkMappings(method, methodMapping, 0, i -> i + (method.isStatic() ? 0 : 1));
+                this.checkMappings(method, methodMapping, 0, paramToLvtIndex);
             } else {
                 final int descriptorOffset;
                 if (!method.isStatic() && outerMethodParamLvtIndices.length > 0 && outerMethodParamLvtIndices[0] == 0) {
@@ -165,8 +167,7 @@ public class MissingMethodParam implements Report {
                 } else {
                     descriptorOffset = outerMethodParamLvtIndices.length;
                 }
-                this.checkMappings(
-                        method, methodMapping, descriptorOffset, i -> i + (method.isStatic() ? 0 : 1), lambdaClosure);
+                this.checkMappings(method, methodMapping, descriptorOffset, paramToLvtIndex, lambdaClosure);
             }
         }
     }
@@ -0,0 +1,124 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.pages;
+
+import static dev.denwav.hypo.model.ClassProviderRoot.fromJar;
+
+import dev.denwav.hypo.asm.AsmClassData;
+import dev.denwav.hypo.asm.AsmClassDataProvider;
+import dev.denwav.hypo.core.HypoConfig;
+import dev.denwav.hypo.core.HypoContext;
+import dev.denwav.hypo.model.data.ClassData;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.objectweb.asm.ClassWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares a full pass over a server jar with the size-aware schedule against submitting one task per class in
+ * provider order. Each class is serialized, so the work per class is proportional to its size like in the real pages.
+ *
+ * <p>Run with {@code ./gradlew jmh -PbenchmarkJar=/path/to/server.jar}, the jar must not be a bundler jar.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class AsmProcessorPageBenchmark {
+
+    @Param({"4", "16"})
+    public int parallelism;
+
+    private HypoContext context;
+    private SerializingPage page;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        final String jar = System.getProperty("codebook.benchmark.jar");
+        if (jar == null) {
+            throw new IllegalStateException("codebook.benchmark.jar is not set, use -PbenchmarkJar=<server jar>");
+        }
+
+        this.context = HypoContext.builder()
+                .withProvider(AsmClassDataProvider.of(fromJar(Path.of(jar))))
+                .withConfig(
+                        HypoConfig.builder().withParallelism(this.parallelism).build())
+                .build();
+        this.page = new SerializingPage(this.context);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        this.context.close();
+    }
+
+    @Benchmark
+    public void scheduled() {
+        this.page.exec();
+    }
+
+    @Benchmark
+    public void perClass() throws Exception {
+        final List<Future<?>> tasks = new ArrayList<>();
+        for (final ClassData classData : this.context.getProvider().allClasses()) {
+            tasks.add(this.context.getExecutor().submit(() -> {
+                this.page.processClass((AsmClassData) classData);
+                return null;
+            }));
+        }
+        for (final Future<?> task : tasks) {
+            task.get();
+        }
+    }
+
+    private static final class SerializingPage extends AsmProcessorPage {
+
+        private SerializingPage(final HypoContext context) {
+            super(context);
+        }
+
+        @Override
+        protected void processClass(final AsmClassData classData) {
+            final ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+            classData.getNode().accept(writer);
+            writer.toByteArray();
+        }
+    }
+}
@@ -22,32 +22,40 @@
 
 package io.papermc.codebook;
 
-import com.google.inject.AbstractModule;
-import com.google.inject.Guice;
-import com.google.inject.Injector;
-import com.google.inject.Module;
-import com.google.inject.util.Providers;
-import dev.denwav.hypo.asm.AsmOutputWriter;
+import dev.denwav.hypo.asm.AsmClassData;
 import dev.denwav.hypo.core.HypoConfig;
 import dev.denwav.hypo.core.HypoContext;
+import io.papermc.codebook.config.CodeBookCompression;
 import io.papermc.codebook.config.CodeBookContext;
 import io.papermc.codebook.config.CodeBookJarInput;
 import io.papermc.codebook.exceptions.UnexpectedException;
 import io.papermc.codebook.exceptions.UserErrorException;
+import io.papermc.codebook.metrics.PageListener;
+import io.papermc.codebook.metrics.PageMeter;
+import io.papermc.codebook.output.OutputJarWriter;
+import io.papermc.codebook.output.StreamingJarWriter;
+import io.papermc.codebook.pages.AsmProcessorPage;
 import io.papermc.codebook.pages.CodeBookPage;
 import io.papermc.codebook.pages.ExtractVanillaJarPage;
 import io.papermc.codebook.pages.FixJarPage;
+import io.papermc.codebook.pages.IncrementalPage;
 import io.papermc.codebook.pages.InspectJarPage;
+import io.papermc.codebook.pages.LvtNamingPage;
+import io.papermc.codebook.pages.PageContext;
+import io.papermc.codebook.pages.PageFactory;
+import io.papermc.codebook.pages.RunFingerprint;
 import io.papermc.codebook.pages.StripSignaturesPage;
 import io.papermc.codebook.pages.UnpickPage;
 import io.papermc.codebook.report.Reports;
 import io.papermc.codebook.util.IOUtil;
+import io.papermc.codebook.util.StageCache;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
 import org.checkerframework.checker.nullness.qual.Nullable;
-import org.objectweb.asm.ClassWriter;
 
 public final class CodeBook {
 
@@ -74,28 +82,76 @@ public final class CodeBook {
         this.deleteOutputFile();
         IOUtil.createDirectories(tempDir);
 
-        final var book = List.of(
-                ExtractVanillaJarPage.class,
-                StripSignaturesPage.class,
-                InspectJarPage.class,
-                UnpickPage.class,
-                FixJarPage.class);
+        final List<PageFactory<?>> book = book();
 
-        Module module = this.createInitialModule(tempDir);
-        for (final var page : book) {
-            module = injector(module).getInstance(page).exec(module);
+        final PageListener listener = Objects.requireNonNullElse(this.ctx.pageListener(), PageListener.NOOP);
+
+        final CodeBookCompression compression =
+                Objects.requireNonNullElse(this.ctx.compression(), CodeBookCompression.DEFAULT);
+
+        final PageContext pageContext = this.createInitialContext(tempDir);
+        final Path resultJar = tempDir.resolve("final_output.jar");
+        boolean streamed = false;
+        for (int i = 0; i < book.size(); ) {
+            // consecutive fusible pages run as a single pass over the classes
+            int end = i + 1;
+            while (end < book.size()
+                    && AsmProcessorPage.isFusible(book.get(i).type())
+                    && AsmProcessorPage.isFusible(book.get(end).type())) {
+                end++;
+            }
+            final var pages = book.subList(i, end);
+            i = end;
+
+            // classes which went through the last pages can be written while the others are still processed
+            final boolean streamOutput = end == book.size()
+                    && pages.stream().allMatch(p -> AsmProcessorPage.class.isAssignableFrom(p.type()));
+
+            String name = pages.stream().map(p -> p.type().getSimpleName()).collect(Collectors.joining("+"));
+            if (streamOutput) {
+                name += "+WriteOutput";
+            }
+            final PageMeter meter = PageMeter.start(name, listener);
+            try {
+                if (pages.size() == 1 && !streamOutput) {
+                    pages.get(0).create(pageContext).exec(pageContext);
+                } else {
+                    final List<AsmProcessorPage> fused = pages.stream()
+                            .map(p -> (AsmProcessorPage) p.create(pageContext))
+                            .toList();
+                    if (streamOutput) {
+                        execStreaming(fused, pageContext, resultJar, compression);
+                        streamed = true;
+                    } else {
+                        AsmProcessorPage.execFused(fused, pageContext, null);
+                    }
+                }
+            } finally {
+                meter.finish();
+            }
         }
 
-        final HypoContext context = injector(module).getInstance(CodeBookPage.Hypo.KEY);
-        final Path resultJar;
+        final HypoContext context = pageContext.require(CodeBookPage.Hypo.KEY);
         try (context) {
-            resultJar = tempDir.resolve("final_output.jar");
-            AsmOutputWriter.to(resultJar, $ -> ClassWriter.COMPUTE_MAXS).write(context);
+            if (!streamed) {
+                final PageMeter meter = PageMeter.start("WriteOutput", listener);
+                try {
+                    OutputJarWriter.write(context, resultJar, compression);
+                } finally {
+                    meter.finish();
+                }
+            }
         } catch (final Exception e) {
             throw new UnexpectedException("Failed to write output file", e);
         }
 
         IOUtil.move(resultJar, this.ctx.outputJar());
+        // lets later incremental runs check they may reuse this output
+        RunFingerprint.of(
+                        this.ctx,
+                        pageContext.get(CodeBookPage.UnpickDefinitions.KEY),
+                        pageContext.get(CodeBookPage.ClasspathJars.KEY))
+                .write(this.ctx.outputJar());
         if (this.ctx.reports() != null) {
             try {
                 this.ctx.reports().generateReports();
@@ -105,12 +161,87 @@ public final class CodeBook {
         }
     }
 
-    private static Injector injector(final Module module) {
-        return Guice.createInjector(module);
+    private static void execStreaming(
+            final List<AsmProcessorPage> pages,
+            final PageContext pageContext,
+            final Path resultJar,
+            final CodeBookCompression compression) {
+        final HypoContext context = pageContext.require(CodeBookPage.Hypo.KEY);
+        int total = 0;
+        for (final var ignored : context.getProvider().allClasses()) {
+            total++;
+        }
+
+        // Entries are written in the provider's order, but classes are processed in order of their cost, so the class
+        // the writer needs next may be processed last. Workers must never wait for it, so the window covers every
+        // class, which holds at most the compressed output in memory, same as writing it afterwards does.
+        try (final StreamingJarWriter writer = new StreamingJarWriter(resultJar, Math.max(1, total))) {
+            AsmProcessorPage.execFused(pages, pageContext, new AsmProcessorPage.ClassSink() {
+                @Override
+                public void accept(final int index, final AsmClassData classData) throws InterruptedException {
+                    writer.write(index, OutputJarWriter.entry(classData, compression));
+                }
+
+                @Override
+                public void skip(final int index) throws InterruptedException {
+                    writer.skip(index);
+                }
+            });
+            writer.finish(total);
+        } catch (final InterruptedException e) {
+            throw new UnexpectedException("Interrupted while writing output file", e);
+        }
+    }
+
+    private static List<PageFactory<?>> book() {
+        return List.of(
+                PageFactory.of(
+                        ExtractVanillaJarPage.class,
+                        c -> new ExtractVanillaJarPage(
+                                c.require(CodeBookPage.InputJar.KEY),
+                                c.get(CodeBookPage.ClasspathJars.KEY),
+                                c.require(CodeBookPage.TempDir.KEY),
+                                c.get(CodeBookPage.Cache.KEY))),
+                PageFactory.of(
+                        StripSignaturesPage.class,
+                        c -> new StripSignaturesPage(
+                                c.require(CodeBookPage.InputJar.KEY),
+                                c.require(CodeBookPage.TempDir.KEY),
+                                c.get(CodeBookPage.Cache.KEY))),
+                PageFactory.of(
+                        InspectJarPage.class,
+                        c -> new InspectJarPage(
+                                c.require(CodeBookPage.InputJar.KEY),
+                                c.require(CodeBookPage.ClasspathJars.KEY),
+                                c.require(CodeBookPage.Hypo.CONFIG_KEY))),
+                PageFactory.of(
+                        IncrementalPage.class,
+                        c -> new IncrementalPage(
+                                c.require(CodeBookPage.Hypo.KEY),
+                                c.require(CodeBookPage.Context.KEY),
+                                c.require(CodeBookPage.InputJar.KEY),
+                                c.require(CodeBookPage.ClasspathJars.KEY),
+                                c.get(CodeBookPage.UnpickDefinitions.KEY))),
+                PageFactory.of(
+                        LvtNamingPage.class,
+                        c -> new LvtNamingPage(
+                                c.require(CodeBookPage.Hypo.KEY),
+                                c.require(CodeBookPage.ParamMappings.KEY),
+                                c.require(CodeBookPage.Report.KEY),
+                                c.require(CodeBookPage.Context.KEY))),
+                PageFactory.of(
+                        UnpickPage.class,
+                        c -> new UnpickPage(
+                                c.require(CodeBookPage.Hypo.KEY),
+                                c.require(CodeBookPage.ClasspathJars.KEY),
+                                c.get(CodeBookPage.UnpickDefinitions.KEY))),
+                PageFactory.of(FixJarPage.class, c -> new FixJarPage(c.require(CodeBookPage.Hypo.KEY))));
     }
 
-    private Module createInitialModule(final Path tempDir) {
-        final Path inputJar = this.ctx.input().resolveInputFile(tempDir);
+    private PageContext createInitialContext(final Path tempDir) {
+        final @Nullable StageCache cache = this.ctx.cacheDir() != null ? new StageCache(this.ctx.cacheDir()) : null;
+
+        final Path inputJar = this.ctx.input().resolveInputFile(tempDir, cache);
         final @Nullable List<Path> classpathJars;
         if (this.ctx.input() instanceof final CodeBookJarInput input) {
             classpathJars = input.classpathJars();
@@ -125,40 +256,18 @@ public final class CodeBook {
             unpickDefinitions = null;
         }
 
-        return new AbstractModule() {
-            @Override
-            protected void configure() {
-                this.bind(CodeBookPage.Context.KEY).toInstance(CodeBook.this.ctx);
-                this.bind(CodeBookPage.InputJar.KEY).toInstance(inputJar);
-                if (classpathJars != null) {
-                    this.bind(CodeBookPage.ClasspathJars.KEY).toInstance(classpathJars);
-                } else {
-                    this.bind(CodeBookPage.ClasspathJars.KEY).toProvider(Providers.of(null));
-                }
-                this.bind(CodeBookPage.TempDir.KEY).toInstance(tempDir);
-
-                if (unpickDefinitions != null) {
-                    this.bind(CodeBookPage.UnpickDefinitions.KEY).toInstance(unpickDefinitions);
-                } else {
-                    this.bind(CodeBookPage.UnpickDefinitions.KEY).toProvider(Providers.of(null));
-                }
-
-                if (CodeBook.this.ctx.reports() != null) {
-                    this.bind(CodeBookPage.Report.KEY).toInstance(CodeBook.this.ctx.reports());
-                    this.install(CodeBook.this.ctx.reports());
-                } else {
-                    this.bind(CodeBookPage.Report.KEY).toInstance(Reports.NOOP);
-                    this.install(Reports.NOOP);
-                }
-
-                if (CodeBook.this.ctx.hypoConfig() != null) {
-                    this.bind(CodeBookPage.Hypo.CONFIG_KEY).toInstance(CodeBook.this.ctx.hypoConfig());
-                } else {
-                    this.bind(CodeBookPage.Hypo.CONFIG_KEY)
-                            .toInstance(HypoConfig.builder().build());
-                }
-            }
-        };
+        return new PageContext()
+                .put(CodeBookPage.Context.KEY, this.ctx)
+                .put(CodeBookPage.InputJar.KEY, inputJar)
+                .put(CodeBookPage.ClasspathJars.KEY, classpathJars)
+                .put(CodeBookPage.TempDir.KEY, tempDir)
+                .put(CodeBookPage.UnpickDefinitions.KEY, unpickDefinitions)
+                .put(CodeBookPage.Report.KEY, Objects.requireNonNullElse(this.ctx.reports(), Reports.NOOP))
+                .put(
+                        CodeBookPage.Hypo.CONFIG_KEY,
+                        Objects.requireNonNullElseGet(this.ctx.hypoConfig(), () -> HypoConfig.builder()
+                                .build()))
+                .put(CodeBookPage.Cache.KEY, cache);
     }
 
     private void deleteOutputFile() {
@@ -170,5 +279,7 @@ public final class CodeBook {
 
             IOUtil.deleteIfExists(this.ctx.outputJar());
         }
+        // an output left over from a failed run must not be paired with an old fingerprint
+        IOUtil.deleteIfExists(RunFingerprint.file(this.ctx.outputJar()));
     }
 }
@@ -0,0 +1,211 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook;
+
+import io.papermc.codebook.config.CodeBookContext;
+import io.papermc.codebook.config.CodeBookContextBuilder;
+import io.papermc.codebook.exceptions.UnexpectedException;
+import io.papermc.codebook.exceptions.UserErrorException;
+import io.papermc.codebook.metrics.PageListener;
+import io.papermc.codebook.metrics.PageMetrics;
+import io.papermc.codebook.metrics.PageProgress;
+import io.papermc.codebook.util.IOUtil;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Runs several codebook jobs in one JVM. Jobs without a cache directory share one for the duration of the batch, so
+ * downloaded server jars and extracted libraries (which are identified by their hash) are only fetched once.
+ *
+ * <p>With a memory budget, jobs run concurrently. The first job runs alone, and the peak heap usage it reports is
+ * taken as the cost of every job to decide how many may run at once. Without a budget, or if the peak heap usage
+ * can't be measured, jobs run one after another.
+ */
+public final class CodeBookBatch {
+
+    private final List<CodeBookContext> jobs;
+    private final long memoryBudget;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition jobFinished = this.lock.newCondition();
+    private int running = 0;
+    private long jobEstimate = -1;
+
+    /**
+     * @param memoryBudget The heap, in bytes, concurrently running jobs may use together. {@code 0} or less runs jobs
+     *     one at a time.
+     */
+    public CodeBookBatch(final List<CodeBookContext> jobs, final long memoryBudget) {
+        this.jobs = List.copyOf(jobs);
+        this.memoryBudget = memoryBudget;
+    }
+
+    public void exec() {
+        this.checkJobs();
+
+        final boolean needsCache = this.jobs.stream().anyMatch(j -> j.cacheDir() == null);
+        final @Nullable Path sharedCache = needsCache ? IOUtil.createTempDir(".tmp_codebook_cache") : null;
+        try {
+            this.run(sharedCache);
+        } finally {
+            if (sharedCache != null) {
+                IOUtil.deleteRecursively(sharedCache);
+            }
+        }
+    }
+
+    private void checkJobs() {
+        final Set<Path> outputs = new HashSet<>();
+        final Set<Path> tempDirs = new HashSet<>();
+        for (final CodeBookContext job : this.jobs) {
+            if (!outputs.add(IOUtil.absolutePath(job.outputJar()))) {
+                throw new UserErrorException("Multiple batch jobs write to the same output jar: " + job.outputJar());
+            }
+            if (job.tempDir() != null && !tempDirs.add(IOUtil.absolutePath(job.tempDir()))) {
+                throw new UserErrorException("Multiple batch jobs use the same temp dir: " + job.tempDir());
+            }
+        }
+    }
+
+    private void run(final @Nullable Path sharedCache) {
+        final List<Throwable> failures = new ArrayList<>();
+        final List<Thread> threads = new ArrayList<>();
+
+        for (int i = 0; i < this.jobs.size(); i++) {
+            final CodeBookContext job = this.prepareJob(this.jobs.get(i), sharedCache);
+            final PeakHeapListener listener =
+                    new PeakHeapListener(Objects.requireNonNullElse(job.pageListener(), PageListener.NOOP));
+
+            this.awaitSlot();
+            threads.add(Thread.ofPlatform().name("codebook-batch-" + i).start(() -> {
+                try {
+                    new CodeBook(CodeBookContextBuilder.builder(job)
+                                    .pageListener(listener)
+                                    .build())
+                            .exec();
+                } catch (final Throwable t) {
+                    synchronized (failures) {
+                        failures.add(t);
+                    }
+                } finally {
+                    this.finishJob(listener.peak.get());
+                }
+            }));
+        }
+
+        for (final Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (final InterruptedException e) {
+                throw new UnexpectedException("Interrupted while waiting for batch jobs", e);
+            }
+        }
+
+        if (failures.size() == 1 && failures.get(0) instanceof final RuntimeException e) {
+            throw e;
+        } else if (!failures.isEmpty()) {
+            final UnexpectedException e =
+                    new UnexpectedException(failures.size() + " of " + this.jobs.size() + " batch jobs failed");
+            failures.forEach(e::addSuppressed);
+            throw e;
+        }
+    }
+
+    private CodeBookContext prepareJob(final CodeBookContext job, final @Nullable Path sharedCache) {
+        if (job.cacheDir() != null || sharedCache == null) {
+            return job;
+        }
+        return CodeBookContextBuilder.builder(job).cacheDir(sharedCache).build();
+    }
+
+    private void awaitSlot() {
+        this.lock.lock();
+        try {
+            while (!this.canStartJob()) {
+                this.jobFinished.await();
+            }
+            this.running++;
+        } catch (final InterruptedException e) {
+            throw new UnexpectedException("Interrupted while waiting to start batch job", e);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private boolean canStartJob() {
+        if (this.running == 0) {
+            return true;
+        }
+        if (this.memoryBudget <= 0 || this.jobEstimate <= 0) {
+            return false;
+        }
+        return (this.running + 1) * this.jobEstimate <= this.memoryBudget;
+    }
+
+    private void finishJob(final long peakHeap) {
+        this.lock.lock();
+        try {
+            this.running--;
+            if (this.jobEstimate <= 0 && peakHeap > 0) {
+                this.jobEstimate = peakHeap;
+            }
+            this.jobFinished.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private static final class PeakHeapListener implements PageListener {
+
+        private final PageListener delegate;
+        private final AtomicLong peak = new AtomicLong(-1);
+
+        private PeakHeapListener(final PageListener delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void pageStarted(final String page) {
+            this.delegate.pageStarted(page);
+        }
+
+        @Override
+        public void pageFinished(final PageMetrics metrics) {
+            this.peak.accumulateAndGet(metrics.peakHeapBytes(), Math::max);
+            this.delegate.pageFinished(metrics);
+        }
+
+        @Override
+        public void pageProgress(final PageProgress progress) {
+            this.delegate.pageProgress(progress);
+        }
+    }
+}
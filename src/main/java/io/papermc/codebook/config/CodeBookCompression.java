@@ -0,0 +1,46 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.config;
+
+import java.util.zip.Deflater;
+
+/**
+ * How entries of the output jar are compressed. {@code level} is a {@link Deflater} level and is ignored when
+ * {@code store} is set.
+ */
+public record CodeBookCompression(boolean store, int level) {
+
+    public static final CodeBookCompression DEFAULT = deflate(Deflater.DEFAULT_COMPRESSION);
+    public static final CodeBookCompression STORED = new CodeBookCompression(true, Deflater.NO_COMPRESSION);
+
+    public CodeBookCompression {
+        if (level != Deflater.DEFAULT_COMPRESSION
+                && (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("Invalid compression level: " + level);
+        }
+    }
+
+    public static CodeBookCompression deflate(final int level) {
+        return new CodeBookCompression(false, level);
+    }
+}
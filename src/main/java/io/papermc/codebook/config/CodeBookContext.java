@@ -23,6 +23,7 @@
 package io.papermc.codebook.config;
 
 import dev.denwav.hypo.core.HypoConfig;
+import io.papermc.codebook.metrics.PageListener;
 import io.papermc.codebook.report.Reports;
 import io.soabase.recordbuilder.core.RecordBuilder;
 import java.nio.file.Path;
@@ -35,12 +36,19 @@ import org.jetbrains.annotations.NotNull;
 @RecordBuilder.Options(interpretNotNulls = true)
 public record CodeBookContext(
         @Nullable @org.jetbrains.annotations.Nullable Path tempDir,
+        @Nullable @org.jetbrains.annotations.Nullable Path cacheDir,
         @Nullable @org.jetbrains.annotations.Nullable CodeBookResource unpickDefinitions,
         @NotNull Path outputJar,
         boolean overwrite,
+        boolean collectErrors,
         @NotNull CodeBookInput input,
+        @Nullable @org.jetbrains.annotations.Nullable CodeBookIncremental incremental,
+        @Nullable @org.jetbrains.annotations.Nullable CodeBookCompression compression,
         @Nullable @org.jetbrains.annotations.Nullable Reports reports,
-        @Nullable @org.jetbrains.annotations.Nullable HypoConfig hypoConfig) {
+        @Nullable @org.jetbrains.annotations.Nullable Path lvtTrace,
+        @Nullable @org.jetbrains.annotations.Nullable Path lvtRules,
+        @Nullable @org.jetbrains.annotations.Nullable HypoConfig hypoConfig,
+        @Nullable @org.jetbrains.annotations.Nullable PageListener pageListener) {
 
     public static CodeBookContextBuilder builder() {
         return CodeBookContextBuilder.builder();
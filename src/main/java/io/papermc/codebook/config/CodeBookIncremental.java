@@ -0,0 +1,39 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.config;
+
+import java.nio.file.Path;
+
+/**
+ * The input and output jars of a previous run. Classes whose bytecode and dependency context are unchanged since that
+ * run are copied from {@code previousOutput} instead of being processed again.
+ *
+ * <p>Nothing is reused if the previous run used a different codebook version, unpick definitions, LVT naming rules or
+ * libraries, which is recorded in the {@link io.papermc.codebook.pages.RunFingerprint} written next to its output.
+ */
+public record CodeBookIncremental(Path previousInput, Path previousOutput) {
+
+    public static CodeBookIncremental of(final Path previousInput, final Path previousOutput) {
+        return new CodeBookIncremental(previousInput, previousOutput);
+    }
+}
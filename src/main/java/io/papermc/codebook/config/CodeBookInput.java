@@ -22,7 +22,9 @@
 
 package io.papermc.codebook.config;
 
+import io.papermc.codebook.util.StageCache;
 import java.nio.file.Path;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 public sealed interface CodeBookInput permits CodeBookVersionInput, CodeBookJarInput {
 
@@ -35,4 +37,12 @@ public sealed interface CodeBookInput permits CodeBookVersionInput, CodeBookJarI
     }
 
     Path resolveInputFile(final Path tempDir);
+
+    /**
+     * Same as {@link #resolveInputFile(Path)}, but inputs which have to be downloaded are kept in {@code cache} so
+     * other runs can reuse them.
+     */
+    default Path resolveInputFile(final Path tempDir, final @Nullable StageCache cache) {
+        return this.resolveInputFile(tempDir);
+    }
 }
@@ -25,10 +25,14 @@ package io.papermc.codebook.config;
 import io.papermc.codebook.mojangapi.MinecraftManifest;
 import io.papermc.codebook.mojangapi.MinecraftVersionManifest;
 import io.papermc.codebook.util.Downloader;
+import io.papermc.codebook.util.StageCache;
 import java.nio.file.Path;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 public record CodeBookVersionInput(String mcVersion) implements CodeBookInput {
 
+    private static final String DOWNLOADS = "downloads";
+
     static CodeBookVersionInput of(final String mcVersion) {
         return new CodeBookVersionInput(mcVersion);
     }
@@ -42,4 +46,17 @@ public record CodeBookVersionInput(String mcVersion) implements CodeBookInput {
         Downloader.downloadFile(versionManifest.serverDownload(), targetJar);
         return targetJar;
     }
+
+    @Override
+    public Path resolveInputFile(final Path tempDir, final @Nullable StageCache cache) {
+        if (cache == null) {
+            return this.resolveInputFile(tempDir);
+        }
+
+        final var manifest = MinecraftManifest.getManifest();
+        final var download = MinecraftVersionManifest.getManifestForVersion(manifest, this.mcVersion)
+                .serverDownload();
+        return cache.computeIfAbsent(
+                DOWNLOADS, download.sha1(), "server.jar", file -> Downloader.downloadFile(download, file));
+    }
 }
@@ -0,0 +1,66 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.metrics;
+
+public interface PageListener {
+
+    PageListener NOOP = new PageListener() {};
+
+    default void pageStarted(final String page) {}
+
+    default void pageFinished(final PageMetrics metrics) {}
+
+    /**
+     * Called periodically while a page processes classes, and once more when it is done. Called from a reporting
+     * thread, not the thread running the page.
+     */
+    default void pageProgress(final PageProgress progress) {}
+
+    static PageListener combine(final PageListener first, final PageListener second) {
+        if (first == NOOP) {
+            return second;
+        } else if (second == NOOP) {
+            return first;
+        }
+
+        return new PageListener() {
+            @Override
+            public void pageStarted(final String page) {
+                first.pageStarted(page);
+                second.pageStarted(page);
+            }
+
+            @Override
+            public void pageFinished(final PageMetrics metrics) {
+                first.pageFinished(metrics);
+                second.pageFinished(metrics);
+            }
+
+            @Override
+            public void pageProgress(final PageProgress progress) {
+                first.pageProgress(progress);
+                second.pageProgress(progress);
+            }
+        };
+    }
+}
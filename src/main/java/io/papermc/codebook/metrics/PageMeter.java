@@ -0,0 +1,156 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Measures the resources used while a page runs. CPU time, allocations and peak heap usage are only measured for the
+ * whole JVM, so they can't be attributed to a page while pages of another job (in a batch or in the daemon) run at the
+ * same time. Pages which overlapped with another page report them as {@code -1}.
+ */
+public final class PageMeter {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final Set<PageMeter> ACTIVE = new HashSet<>();
+
+    private final String page;
+    private final PageListener listener;
+    private final long startNanos;
+    private final Map<Long, long[]> startThreads;
+    private boolean overlapped = false;
+
+    private PageMeter(final String page, final PageListener listener) {
+        this.page = page;
+        this.listener = listener;
+
+        synchronized (ACTIVE) {
+            if (ACTIVE.isEmpty()) {
+                resetPeakHeap();
+            } else {
+                this.overlapped = true;
+                ACTIVE.forEach(m -> m.overlapped = true);
+            }
+            ACTIVE.add(this);
+        }
+        this.startThreads = snapshotThreads();
+        this.startNanos = System.nanoTime();
+    }
+
+    public static PageMeter start(final String page, final PageListener listener) {
+        listener.pageStarted(page);
+        return new PageMeter(page, listener);
+    }
+
+    public PageMetrics finish() {
+        final long wallNanos = System.nanoTime() - this.startNanos;
+
+        // Pages do most of their work on the Hypo executor, so CPU time and allocations are summed over every thread.
+        // Threads which died while the page was running are not accounted for.
+        long cpuNanos = cpuTimeSupported() ? 0 : -1;
+        long allocatedBytes = allocationSupported() ? 0 : -1;
+        for (final Map.Entry<Long, long[]> thread : snapshotThreads().entrySet()) {
+            final long[] end = thread.getValue();
+            final long[] start = this.startThreads.getOrDefault(thread.getKey(), new long[2]);
+            if (cpuNanos != -1 && end[0] != -1) {
+                cpuNanos += end[0] - Math.max(0, start[0]);
+            }
+            if (allocatedBytes != -1 && end[1] != -1) {
+                allocatedBytes += end[1] - Math.max(0, start[1]);
+            }
+        }
+
+        long peakHeap = peakHeap();
+
+        synchronized (ACTIVE) {
+            ACTIVE.remove(this);
+            if (this.overlapped) {
+                cpuNanos = -1;
+                allocatedBytes = -1;
+                peakHeap = -1;
+            }
+        }
+
+        final PageMetrics metrics = new PageMetrics(this.page, wallNanos, cpuNanos, allocatedBytes, peakHeap);
+        this.listener.pageFinished(metrics);
+        return metrics;
+    }
+
+    private static Map<Long, long[]> snapshotThreads() {
+        final long[] ids = THREADS.getAllThreadIds();
+        final Map<Long, long[]> result = new HashMap<>(ids.length * 2);
+
+        final long[] allocated;
+        if (allocationSupported()) {
+            allocated = ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(ids);
+        } else {
+            allocated = null;
+        }
+
+        final boolean cpu = cpuTimeSupported();
+        for (int i = 0; i < ids.length; i++) {
+            final long cpuTime = cpu ? THREADS.getThreadCpuTime(ids[i]) : -1;
+            final long allocatedBytes = allocated != null ? allocated[i] : -1;
+            result.put(ids[i], new long[] {cpuTime, allocatedBytes});
+        }
+        return result;
+    }
+
+    private static boolean cpuTimeSupported() {
+        return THREADS.isThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled();
+    }
+
+    private static boolean allocationSupported() {
+        return THREADS instanceof final com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported()
+                && threads.isThreadAllocatedMemoryEnabled();
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(p -> p.getType() == MemoryType.HEAP && p.isValid())
+                .toList();
+    }
+
+    private static void resetPeakHeap() {
+        for (final MemoryPoolMXBean pool : heapPools()) {
+            pool.resetPeakUsage();
+        }
+    }
+
+    private static long peakHeap() {
+        long peak = 0;
+        for (final MemoryPoolMXBean pool : heapPools()) {
+            peak += pool.getPeakUsage().getUsed();
+        }
+        return peak;
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.metrics;
+
+/**
+ * Resource usage of a single pipeline page. Values which the running JVM can't measure, or which can't be attributed to
+ * the page because another page ran at the same time, are reported as {@code -1}.
+ *
+ * @param page The name of the page.
+ * @param wallNanos Elapsed wall clock time.
+ * @param cpuNanos CPU time consumed by all live threads while the page ran.
+ * @param allocatedBytes Bytes allocated by all live threads while the page ran.
+ * @param peakHeapBytes Peak heap usage while the page ran.
+ */
+public record PageMetrics(String page, long wallNanos, long cpuNanos, long allocatedBytes, long peakHeapBytes) {}
@@ -0,0 +1,47 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.metrics;
+
+import java.util.List;
+
+/**
+ * A snapshot of a running pass over the classes, or over other items such as groups of methods.
+ *
+ * @param unit What {@code done} and {@code total} count, in plural, such as {@code "classes"}.
+ * @param perSecond The rate since the previous snapshot of the same pass.
+ * @param stragglers Items which have been in processing for a while, longest running first.
+ */
+public record PageProgress(
+        String page,
+        String unit,
+        long done,
+        long total,
+        double perSecond,
+        long elapsedNanos,
+        List<Straggler> stragglers) {
+
+    /**
+     * @param item The item being processed, such as a class name.
+     */
+    public record Straggler(String item, String page, long elapsedNanos) {}
+}
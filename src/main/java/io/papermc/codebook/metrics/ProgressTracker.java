@@ -0,0 +1,151 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Counts processed classes, or other items, and reports {@link PageProgress} to a {@link PageListener} at a fixed interval. Workers only
+ * touch a {@link LongAdder} and their own in-flight slot, so tracking is cheap enough for the per-class hot path.
+ */
+public final class ProgressTracker implements AutoCloseable {
+
+    private static final long INTERVAL_MILLIS = 500;
+    private static final long STRAGGLER_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int MAX_STRAGGLERS = 3;
+
+    private static final ScheduledExecutorService REPORTER = Executors.newSingleThreadScheduledExecutor(r -> {
+        final Thread thread = new Thread(r, "codebook-progress");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String page;
+    private final String unit;
+    private final long total;
+    private final PageListener listener;
+    private final long startNanos = System.nanoTime();
+    private final LongAdder done = new LongAdder();
+    private final AtomicReferenceArray<@Nullable InFlight> inFlight;
+    private final @Nullable ScheduledFuture<?> task;
+
+    private boolean closed = false;
+    private long lastDone = 0;
+    private long lastNanos = this.startNanos;
+
+    private ProgressTracker(
+            final String page, final String unit, final long total, final int workers, final PageListener listener) {
+        this.page = page;
+        this.unit = unit;
+        this.total = total;
+        this.listener = listener;
+        this.inFlight = new AtomicReferenceArray<>(listener == PageListener.NOOP ? 0 : workers);
+        if (listener == PageListener.NOOP) {
+            this.task = null;
+        } else {
+            this.task =
+                    REPORTER.scheduleAtFixedRate(this::report, INTERVAL_MILLIS, INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Starts tracking {@code total} items, {@code unit} names them in plural.
+     */
+    public static ProgressTracker start(
+            final String page, final String unit, final long total, final int workers, final PageListener listener) {
+        return new ProgressTracker(page, unit, total, workers, listener);
+    }
+
+    /**
+     * Marks {@code worker} as running {@code page} on {@code item}.
+     */
+    public void started(final int worker, final String item, final String page) {
+        if (worker < this.inFlight.length()) {
+            this.inFlight.lazySet(worker, new InFlight(item, page, System.nanoTime()));
+        }
+    }
+
+    public void finished(final int worker) {
+        if (worker < this.inFlight.length()) {
+            this.inFlight.lazySet(worker, null);
+        }
+        this.done.increment();
+    }
+
+    /**
+     * Stops reporting, after a final report if anything was reported before.
+     */
+    @Override
+    public void close() {
+        if (this.task != null) {
+            this.task.cancel(false);
+            synchronized (this) {
+                this.report();
+                // a scheduled report may still be waiting for the lock
+                this.closed = true;
+            }
+        }
+    }
+
+    private synchronized void report() {
+        if (this.closed) {
+            return;
+        }
+
+        final long now = System.nanoTime();
+        final long done = this.done.sum();
+        final double rate = now == this.lastNanos ? 0 : (done - this.lastDone) * 1e9 / (now - this.lastNanos);
+        this.lastDone = done;
+        this.lastNanos = now;
+
+        final List<PageProgress.Straggler> stragglers = new ArrayList<>();
+        for (int i = 0; i < this.inFlight.length(); i++) {
+            final @Nullable InFlight running = this.inFlight.get(i);
+            if (running != null && now - running.startNanos() >= STRAGGLER_NANOS) {
+                stragglers.add(new PageProgress.Straggler(running.item(), running.page(), now - running.startNanos()));
+            }
+        }
+        stragglers.sort(
+                Comparator.comparingLong(PageProgress.Straggler::elapsedNanos).reversed());
+
+        this.listener.pageProgress(new PageProgress(
+                this.page,
+                this.unit,
+                done,
+                this.total,
+                rate,
+                now - this.startNanos,
+                List.copyOf(stragglers.subList(0, Math.min(MAX_STRAGGLERS, stragglers.size())))));
+    }
+
+    private record InFlight(String item, String page, long startNanos) {}
+}
@@ -32,7 +32,7 @@ public record MinecraftManifest(Map<String, ?> latest, List<MinecraftVersion> ve
     private static final String URL = "https://piston-meta.mojang.com/mc/game/version_manifest_v2.json";
     private static @Nullable MinecraftManifest manifestInstance;
 
-    public static MinecraftManifest getManifest() {
+    public static synchronized MinecraftManifest getManifest() {
         if (manifestInstance != null) {
             return manifestInstance;
         }
@@ -24,14 +24,14 @@ package io.papermc.codebook.mojangapi;
 
 import io.papermc.codebook.exceptions.UserErrorException;
 import io.papermc.codebook.util.Downloader;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 public record MinecraftVersionManifest(Map<String, MinecraftVersionDownload> downloads) {
 
-    private static final Map<String, MinecraftVersionManifest> instanceMap = new HashMap<>();
+    private static final Map<String, MinecraftVersionManifest> instanceMap = new ConcurrentHashMap<>();
 
     public static MinecraftVersionManifest getManifestForVersion(
             final MinecraftManifest manifest, final String mcVersion) {
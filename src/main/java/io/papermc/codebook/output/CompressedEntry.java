@@ -0,0 +1,72 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.output;
+
+import io.papermc.codebook.config.CodeBookCompression;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+
+/**
+ * A jar entry whose data is already in its final, possibly compressed, form. Entries are compressed on whichever thread
+ * creates them, and written by {@link JarEntryWriter} without any further work.
+ */
+public record CompressedEntry(byte[] name, int method, int crc, int size, byte[] data) {
+
+    private static final ThreadLocal<Deflater> DEFLATER =
+            ThreadLocal.withInitial(() -> new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+
+    public static CompressedEntry of(final String name, final byte[] content, final CodeBookCompression compression) {
+        final CRC32 crc = new CRC32();
+        crc.update(content);
+        final byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+
+        if (compression.store()) {
+            return new CompressedEntry(nameBytes, ZipEntry.STORED, (int) crc.getValue(), content.length, content);
+        }
+        return new CompressedEntry(
+                nameBytes,
+                ZipEntry.DEFLATED,
+                (int) crc.getValue(),
+                content.length,
+                deflate(content, compression.level()));
+    }
+
+    private static byte[] deflate(final byte[] content, final int level) {
+        final Deflater deflater = DEFLATER.get();
+        deflater.reset();
+        deflater.setLevel(level);
+        deflater.setInput(content);
+        deflater.finish();
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(64, content.length / 2));
+        final byte[] buffer = new byte[8192];
+        while (!deflater.finished()) {
+            final int len = deflater.deflate(buffer);
+            output.write(buffer, 0, len);
+        }
+        return output.toByteArray();
+    }
+}
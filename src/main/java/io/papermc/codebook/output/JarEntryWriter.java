@@ -0,0 +1,134 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.output;
+
+import io.papermc.codebook.exceptions.UnexpectedException;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.ZipEntry;
+
+/**
+ * Writes {@link CompressedEntry CompressedEntries} into a zip file as-is. All entries get the same fixed timestamp, so
+ * the same entries written in the same order always produce the same file.
+ */
+public final class JarEntryWriter implements Closeable {
+
+    private static final int LOCAL_HEADER = 0x04034b50;
+    private static final int CENTRAL_HEADER = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+
+    private static final int FLAG_UTF8 = 1 << 11;
+    // 1980-02-01 00:00, the earliest time every zip implementation handles the same way
+    private static final short DOS_TIME = 0;
+    private static final short DOS_DATE = (2 << 5) | 1;
+
+    private static final int MAX_ENTRIES = 0xFFFF;
+    private static final long MAX_OFFSET = 0xFFFFFFFFL;
+
+    private final OutputStream output;
+    private final ByteArrayOutputStream centralDirectory = new ByteArrayOutputStream();
+    private final ByteBuffer header = ByteBuffer.allocate(46).order(ByteOrder.LITTLE_ENDIAN);
+    private long offset = 0;
+    private int entries = 0;
+
+    public JarEntryWriter(final OutputStream output) {
+        this.output = output;
+    }
+
+    public void write(final CompressedEntry entry) throws IOException {
+        if (this.entries == MAX_ENTRIES) {
+            throw new UnexpectedException("Output jar has more than " + MAX_ENTRIES + " entries");
+        }
+        final long entryOffset = this.offset;
+        if (entryOffset > MAX_OFFSET) {
+            throw new UnexpectedException("Output jar is larger than 4 GiB");
+        }
+        final short version = (short) (entry.method() == ZipEntry.STORED ? 10 : 20);
+
+        this.header.clear();
+        this.header.putInt(LOCAL_HEADER);
+        this.header.putShort(version);
+        this.putEntryInfo(entry);
+        this.header.putShort((short) 0); // extra length
+        this.writeHeader(this.output);
+        this.output.write(entry.name());
+        this.output.write(entry.data());
+        this.offset += 30 + entry.name().length + entry.data().length;
+
+        this.header.clear();
+        this.header.putInt(CENTRAL_HEADER);
+        this.header.putShort((short) 20); // made by
+        this.header.putShort(version);
+        this.putEntryInfo(entry);
+        this.header.putShort((short) 0); // extra length
+        this.header.putShort((short) 0); // comment length
+        this.header.putShort((short) 0); // disk number
+        this.header.putShort((short) 0); // internal attributes
+        this.header.putInt(0); // external attributes
+        this.header.putInt((int) entryOffset);
+        this.writeHeader(this.centralDirectory);
+        this.centralDirectory.write(entry.name());
+
+        this.entries++;
+    }
+
+    private void putEntryInfo(final CompressedEntry entry) {
+        this.header.putShort((short) FLAG_UTF8);
+        this.header.putShort((short) entry.method());
+        this.header.putShort(DOS_TIME);
+        this.header.putShort(DOS_DATE);
+        this.header.putInt(entry.crc());
+        this.header.putInt(entry.data().length);
+        this.header.putInt(entry.size());
+        this.header.putShort((short) entry.name().length);
+    }
+
+    private void writeHeader(final OutputStream out) throws IOException {
+        out.write(this.header.array(), 0, this.header.position());
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (this.output) {
+            if (this.offset > MAX_OFFSET) {
+                throw new UnexpectedException("Output jar is larger than 4 GiB");
+            }
+            this.centralDirectory.writeTo(this.output);
+
+            this.header.clear();
+            this.header.putInt(END_OF_CENTRAL_DIRECTORY);
+            this.header.putShort((short) 0); // disk number
+            this.header.putShort((short) 0); // central directory disk
+            this.header.putShort((short) this.entries);
+            this.header.putShort((short) this.entries);
+            this.header.putInt(this.centralDirectory.size());
+            this.header.putInt((int) this.offset);
+            this.header.putShort((short) 0); // comment length
+            this.writeHeader(this.output);
+        }
+    }
+}
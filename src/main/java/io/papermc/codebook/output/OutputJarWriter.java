@@ -0,0 +1,83 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.output;
+
+import dev.denwav.hypo.asm.AsmClassData;
+import dev.denwav.hypo.core.HypoContext;
+import dev.denwav.hypo.model.data.ClassData;
+import io.papermc.codebook.config.CodeBookCompression;
+import io.papermc.codebook.exceptions.UnexpectedException;
+import io.papermc.codebook.pages.IncrementalPage;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.objectweb.asm.ClassWriter;
+
+public final class OutputJarWriter {
+
+    private OutputJarWriter() {}
+
+    /**
+     * Writes every class in {@code context} to {@code outputJar}, serializing and compressing them on the context's
+     * executor.
+     */
+    public static void write(final HypoContext context, final Path outputJar, final CodeBookCompression compression)
+            throws IOException {
+        final List<Future<CompressedEntry>> entries = new ArrayList<>();
+        for (final ClassData classData : context.getProvider().allClasses()) {
+            entries.add(context.getExecutor().submit(() -> entry((AsmClassData) classData, compression)));
+        }
+
+        try (final JarEntryWriter writer =
+                new JarEntryWriter(new BufferedOutputStream(Files.newOutputStream(outputJar)))) {
+            for (final Future<CompressedEntry> entry : entries) {
+                writer.write(entry.get());
+            }
+        } catch (final ExecutionException e) {
+            throw new UnexpectedException("Failed to serialize classes", e.getCause());
+        } catch (final InterruptedException e) {
+            throw new UnexpectedException("Interrupted while writing output jar", e);
+        }
+    }
+
+    public static CompressedEntry entry(final AsmClassData classData, final CodeBookCompression compression) {
+        return CompressedEntry.of(classData.name() + ".class", toBytes(classData), compression);
+    }
+
+    public static byte[] toBytes(final AsmClassData classData) {
+        final byte @Nullable [] previousOutput = classData.get(IncrementalPage.PREVIOUS_OUTPUT);
+        if (previousOutput != null) {
+            return previousOutput;
+        }
+
+        final ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        classData.getNode().accept(writer);
+        return writer.toByteArray();
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.output;
+
+import io.papermc.codebook.exceptions.UnexpectedException;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Writes jar entries on a dedicated thread while they are still being produced. Entries are serialized and compressed
+ * by the producers, this thread only copies them into the jar. Entries are submitted with their
+ * index in the final jar and written strictly in that order, so the output does not depend on which worker finished
+ * first. Producers block while their entry is more than {@code window} entries ahead of the writer, which bounds the
+ * number of serialized classes held in memory.
+ */
+public final class StreamingJarWriter implements AutoCloseable {
+
+    private static final CompressedEntry SKIPPED = new CompressedEntry(new byte[0], 0, 0, 0, new byte[0]);
+
+    private final Path outputJar;
+    private final int window;
+    private final Thread thread;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = this.lock.newCondition();
+    private final Map<Integer, CompressedEntry> pending = new HashMap<>();
+    private int next = 0;
+    private int total = -1;
+    private boolean closed = false;
+    private @Nullable Throwable failure;
+
+    public StreamingJarWriter(final Path outputJar, final int window) {
+        if (window < 1) {
+            throw new IllegalArgumentException("window must be at least 1: " + window);
+        }
+        this.outputJar = outputJar;
+        this.window = window;
+        this.thread = Thread.ofPlatform().name("codebook-jar-writer").daemon().start(this::run);
+    }
+
+    /**
+     * Queues the entry at position {@code index}, blocking until it is within the writer's window.
+     */
+    public void write(final int index, final CompressedEntry entry) throws InterruptedException {
+        this.put(index, entry);
+    }
+
+    /**
+     * Leaves out the entry at position {@code index}, so later entries don't wait for it.
+     */
+    public void skip(final int index) throws InterruptedException {
+        this.put(index, SKIPPED);
+    }
+
+    private void put(final int index, final CompressedEntry entry) throws InterruptedException {
+        this.lock.lock();
+        try {
+            while (index >= this.next + this.window && !this.closed && this.failure == null) {
+                this.changed.await();
+            }
+            this.checkState();
+            this.pending.put(index, entry);
+            this.changed.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Waits for all {@code total} entries to be written and closes the jar.
+     */
+    public void finish(final int total) throws InterruptedException {
+        this.lock.lock();
+        try {
+            this.checkState();
+            this.total = total;
+            this.changed.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+
+        this.thread.join();
+
+        this.lock.lock();
+        try {
+            this.checkState();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the writer, unblocking any producer waiting on it. Entries which have not been written yet are dropped.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        this.lock.lock();
+        try {
+            this.closed = true;
+            this.changed.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+        this.thread.join();
+    }
+
+    private void checkState() {
+        if (this.failure != null) {
+            throw new UnexpectedException("Failed to write output jar " + this.outputJar, this.failure);
+        }
+        if (this.closed) {
+            throw new UnexpectedException("Output jar writer is closed");
+        }
+    }
+
+    private void run() {
+        try (final JarEntryWriter writer =
+                new JarEntryWriter(new BufferedOutputStream(Files.newOutputStream(this.outputJar)))) {
+            while (true) {
+                final @Nullable CompressedEntry entry = this.take();
+                if (entry == null) {
+                    break;
+                }
+                writer.write(entry);
+            }
+        } catch (final IOException | RuntimeException e) {
+            this.lock.lock();
+            try {
+                this.failure = e;
+                this.changed.signalAll();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+    }
+
+    private @Nullable CompressedEntry take() {
+        this.lock.lock();
+        try {
+            while (true) {
+                if (this.closed || this.next == this.total) {
+                    return null;
+                }
+                final @Nullable CompressedEntry entry = this.pending.remove(this.next);
+                if (entry != null) {
+                    this.next++;
+                    this.changed.signalAll();
+                    if (entry != SKIPPED) {
+                        return entry;
+                    }
+                    continue;
+                }
+                this.changed.awaitUninterruptibly();
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+}
@@ -25,12 +25,26 @@ package io.papermc.codebook.pages;
 import dev.denwav.hypo.asm.AsmClassData;
 import dev.denwav.hypo.core.HypoContext;
 import dev.denwav.hypo.model.HypoModelUtil;
-import dev.denwav.hypo.model.data.ClassData;
+import io.papermc.codebook.config.CodeBookContext;
 import io.papermc.codebook.exceptions.UnexpectedException;
+import io.papermc.codebook.metrics.PageListener;
+import io.papermc.codebook.metrics.ProgressTracker;
 import java.io.IOException;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
 import java.util.ArrayList;
-import java.util.concurrent.ExecutionException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 public abstract class AsmProcessorPage extends CodeBookPage {
 
@@ -42,32 +56,225 @@ public abstract class AsmProcessorPage extends CodeBookPage {
 
     @Override
     public void exec() {
-        this.processClasses();
+        execFused(List.of(this));
     }
 
-    protected void processClasses() {
+    @Override
+    public void exec(final PageContext context) {
+        execFused(List.of(this), context, null);
+    }
+
+    /**
+     * Runs several pages over the class set in a single pass, with each class going through every page back-to-back in
+     * the same task. All pages must share the same {@link HypoContext}.
+     */
+    public static void execFused(final List<? extends AsmProcessorPage> pages) {
+        execFused(pages, null, PassOptions.DEFAULT);
+    }
+
+    /**
+     * Same as {@link #execFused(List)}, but every class is also handed to {@code sink} on the worker which processed
+     * it, right after its last page. Classes reused from a previous run are handed over unprocessed.
+     *
+     * <p>By default the first class which fails stops the pass, classes which haven't started yet are not processed
+     * anymore. With {@link PassOptions#collectErrors()} the remaining classes are still processed, and all failures
+     * are reported together afterwards.
+     */
+    public static void execFused(
+            final List<? extends AsmProcessorPage> pages, final @Nullable ClassSink sink, final PassOptions options) {
+        final List<AsmProcessorPage> prepared = new ArrayList<>(pages.size());
+        try {
+            for (final AsmProcessorPage page : pages) {
+                if (page.prepare()) {
+                    prepared.add(page);
+                }
+            }
+            if (!prepared.isEmpty()) {
+                processClasses(prepared.get(0).context, prepared, sink, options);
+            } else if (sink != null && !pages.isEmpty()) {
+                processClasses(pages.get(0).context, List.of(), sink, options);
+            }
+        } finally {
+            for (final AsmProcessorPage page : prepared) {
+                page.finish();
+            }
+        }
+    }
+
+    /**
+     * Same as {@link #execFused(List, ClassSink, PassOptions)}, with options taken from the {@link CodeBookContext} in
+     * {@code context}, and anything the pages bind added to {@code context} afterwards.
+     */
+    public static void execFused(
+            final List<? extends AsmProcessorPage> pages, final PageContext context, final @Nullable ClassSink sink) {
+        for (final AsmProcessorPage page : pages) {
+            page.clearBindings();
+        }
+        final CodeBookContext codeBookContext = context.require(Context.KEY);
+        final PassOptions options = new PassOptions(
+                codeBookContext.collectErrors(),
+                Objects.requireNonNullElse(codeBookContext.pageListener(), PageListener.NOOP));
+        execFused(pages, sink, options);
+        for (final AsmProcessorPage page : pages) {
+            page.publishBindings(context);
+        }
+    }
+
+    public static boolean isFusible(final Class<? extends CodeBookPage> page) {
+        return AsmProcessorPage.class.isAssignableFrom(page) && page.isAnnotationPresent(Fusible.class);
+    }
+
+    /**
+     * Called before any class is processed. Returning {@code false} skips this page.
+     */
+    protected boolean prepare() {
+        return true;
+    }
+
+    /**
+     * Called after all classes have been processed, or processing failed, if {@link #prepare()} returned
+     * {@code true}.
+     */
+    protected void finish() {}
+
+    private static void processClasses(
+            final HypoContext context,
+            final List<AsmProcessorPage> pages,
+            final @Nullable ClassSink sink,
+            final PassOptions options) {
+        final int parallelism = ClassSchedule.parallelism(context);
+        final ClassSchedule schedule = ClassSchedule.create(context, sink != null, parallelism);
+        final int workers = Math.min(parallelism, schedule.chunkCount());
+
+        final String name =
+                pages.stream().map(p -> p.getClass().getSimpleName()).collect(Collectors.joining("+"));
+        try (final ProgressTracker progress =
+                ProgressTracker.start(name, "classes", schedule.size(), workers, options.listener())) {
+            processClasses(context, pages, sink, options.collectErrors(), schedule, workers, progress);
+        }
+    }
+
+    private static void processClasses(
+            final HypoContext context,
+            final List<AsmProcessorPage> pages,
+            final @Nullable ClassSink sink,
+            final boolean collectErrors,
+            final ClassSchedule schedule,
+            final int workers,
+            final ProgressTracker progress) {
+        final AtomicInteger nextChunk = new AtomicInteger();
+        final AtomicBoolean failed = new AtomicBoolean();
+        final Queue<ClassFailure> failures = new ConcurrentLinkedQueue<>();
         final var tasks = new ArrayList<Future<?>>();
-        for (final ClassData classData : this.context.getProvider().allClasses()) {
-            final var task = this.context.getExecutor().submit(() -> {
+        for (int i = 0; i < workers; i++) {
+            final int worker = i;
+            final var task = context.getExecutor().submit(() -> {
                 try {
-                    this.processClass((AsmClassData) classData);
+                    int chunk;
+                    while ((chunk = nextChunk.getAndIncrement()) < schedule.chunkCount()) {
+                        for (final ClassSchedule.Item item : schedule.chunk(chunk)) {
+                            if (failed.get()) {
+                                return;
+                            }
+                            if (!item.reused() && !processClass(pages, item, failures, worker, progress)) {
+                                if (!collectErrors) {
+                                    failed.set(true);
+                                    return;
+                                }
+                                if (sink != null) {
+                                    sink.skip(item.index());
+                                }
+                                progress.finished(worker);
+                                continue;
+                            }
+                            if (sink != null) {
+                                sink.accept(item.index(), item.classData());
+                            }
+                            progress.finished(worker);
+                        }
+                    }
                 } catch (final Exception e) {
+                    failed.set(true);
                     throw HypoModelUtil.rethrow(e);
                 }
             });
             tasks.add(task);
         }
 
-        try {
-            for (final Future<?> task : tasks) {
-                task.get();
+        final @Nullable Throwable error = Workers.awaitAll(tasks, failed);
+        if (error != null) {
+            throw new UnexpectedException("Failed to process classes", error);
+        }
+        if (failures.size() == 1 && !collectErrors) {
+            throw failures.remove().toException();
+        } else if (!failures.isEmpty()) {
+            final UnexpectedException e = new UnexpectedException("Failed to process " + failures.size() + " classes");
+            failures.stream()
+                    .sorted(Comparator.comparing(ClassFailure::className))
+                    .forEach(f -> e.addSuppressed(f.toException()));
+            throw e;
+        }
+    }
+
+    private static boolean processClass(
+            final List<AsmProcessorPage> pages,
+            final ClassSchedule.Item item,
+            final Queue<ClassFailure> failures,
+            final int worker,
+            final ProgressTracker progress) {
+        for (final AsmProcessorPage page : pages) {
+            progress.started(worker, item.classData().name(), page.getClass().getSimpleName());
+            try {
+                page.processClass(item.classData());
+            } catch (final Exception e) {
+                failures.add(new ClassFailure(
+                        item.classData().name(), page.getClass().getSimpleName(), e));
+                return false;
             }
-        } catch (final ExecutionException e) {
-            throw new UnexpectedException("Failed to process classes", e.getCause());
-        } catch (final InterruptedException e) {
-            throw new UnexpectedException("Class processing interrupted", e);
+        }
+        return true;
+    }
+
+    private record ClassFailure(String className, String page, Exception cause) {
+        UnexpectedException toException() {
+            return new UnexpectedException(
+                    "Failed to process class " + this.className + " in " + this.page, this.cause);
         }
     }
 
     protected abstract void processClass(final AsmClassData classData) throws IOException;
+
+    /**
+     * How a pass over the classes is run.
+     *
+     * @param collectErrors Whether to keep processing other classes after one failed.
+     * @param listener Receives {@link io.papermc.codebook.metrics.PageProgress} while the pass runs.
+     */
+    public record PassOptions(boolean collectErrors, PageListener listener) {
+        public static final PassOptions DEFAULT = new PassOptions(false, PageListener.NOOP);
+    }
+
+    /**
+     * Receives classes once every page has processed them. {@code index} is the position of the class in the class
+     * provider's order, the order the output jar lists classes in. Classes are handed over in the order they are
+     * processed in, which is not that order, so a sink must not wait for a class at a lower index.
+     */
+    @FunctionalInterface
+    public interface ClassSink {
+        void accept(int index, AsmClassData classData) throws Exception;
+
+        /**
+         * Called instead of {@link #accept(int, AsmClassData)} for classes which failed to process, when errors are
+         * collected.
+         */
+        default void skip(final int index) throws Exception {}
+    }
+
+    /**
+     * Marks a page whose {@link #processClass(AsmClassData)} only touches the class it is given and which binds no
+     * new values, so it can be fused with adjacent fusible pages.
+     */
+    @Target(ElementType.TYPE)
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface Fusible {}
 }
@@ -0,0 +1,128 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.pages;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldInsnNode;
+import org.objectweb.asm.tree.InvokeDynamicInsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+
+/**
+ * Which classes the output of a class depends on, by class name. The output of a class depends on
+ *
+ * <ul>
+ *   <li>its supertypes, and so on everything its supertypes depend on,
+ *   <li>the classes its lambdas and local classes are named together with, in both directions,
+ *   <li>the classes it references from its instructions. Suggesters and unpick look at their hierarchy, members and
+ *       whether they are records, but not at their output, so these only count when the referenced class or one of
+ *       its supertypes changed itself.
+ * </ul>
+ */
+final class ClassDependencies {
+
+    // edges point from a class to the classes whose output depends on it
+    private final Map<String, List<String>> subtypes = new HashMap<>();
+    private final Map<String, List<String>> closures = new HashMap<>();
+    private final Map<String, List<String>> referrers = new HashMap<>();
+
+    void supertype(final String type, final String subtype) {
+        link(this.subtypes, type, subtype);
+    }
+
+    void closure(final String a, final String b) {
+        link(this.closures, a, b);
+        link(this.closures, b, a);
+    }
+
+    void reference(final String referenced, final String referrer) {
+        link(this.referrers, referenced, referrer);
+    }
+
+    /**
+     * Adds the owners of every method, field and method handle referenced by the instructions of {@code node}.
+     */
+    void references(final ClassNode node) {
+        for (final MethodNode method : node.methods) {
+            for (final AbstractInsnNode insn : method.instructions) {
+                if (insn instanceof final MethodInsnNode methodInsn) {
+                    this.reference(methodInsn.owner, node.name);
+                } else if (insn instanceof final FieldInsnNode fieldInsn) {
+                    this.reference(fieldInsn.owner, node.name);
+                } else if (insn instanceof final InvokeDynamicInsnNode indy) {
+                    for (final Object arg : indy.bsmArgs) {
+                        if (arg instanceof final Handle handle) {
+                            this.reference(handle.getOwner(), node.name);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the classes whose output may differ from the previous run when {@code changed} classes changed.
+     */
+    Set<String> affected(final Collection<String> changed) {
+        final Set<String> hierarchyChanged = reach(changed, List.of(this.subtypes));
+
+        final Set<String> affected = new HashSet<>(hierarchyChanged);
+        for (final String name : hierarchyChanged) {
+            affected.addAll(this.referrers.getOrDefault(name, List.of()));
+        }
+        return reach(affected, List.of(this.subtypes, this.closures));
+    }
+
+    private static Set<String> reach(final Collection<String> from, final List<Map<String, List<String>>> edges) {
+        final Set<String> reached = new HashSet<>(from);
+        final ArrayDeque<String> queue = new ArrayDeque<>(from);
+        while (!queue.isEmpty()) {
+            final String name = queue.poll();
+            for (final Map<String, List<String>> edge : edges) {
+                for (final String dependent : edge.getOrDefault(name, List.of())) {
+                    if (reached.add(dependent)) {
+                        queue.add(dependent);
+                    }
+                }
+            }
+        }
+        return reached;
+    }
+
+    private static void link(final Map<String, List<String>> edges, final String from, final String to) {
+        // array owners of clone() calls aren't classes
+        if (!from.equals(to) && !from.startsWith("[")) {
+            edges.computeIfAbsent(from, k -> new ArrayList<>()).add(to);
+        }
+    }
+}
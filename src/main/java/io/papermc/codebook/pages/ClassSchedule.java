@@ -0,0 +1,129 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.pages;
+
+import dev.denwav.hypo.asm.AsmClassData;
+import dev.denwav.hypo.core.HypoContext;
+import dev.denwav.hypo.model.data.ClassData;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.objectweb.asm.tree.MethodNode;
+
+/**
+ * The order classes are processed in. Classes are sorted by their estimated cost, most expensive first, so the large
+ * classes don't end up as the long tail of a pass. Cheap classes are grouped into chunks to keep the per-task
+ * overhead low. Workers pull chunks in order, which balances whatever is left between them.
+ */
+final class ClassSchedule {
+
+    /**
+     * How many chunks each worker should get on average, more chunks balance better but cost more overhead.
+     */
+    private static final int CHUNKS_PER_WORKER = 16;
+
+    private final List<List<Item>> chunks;
+    private final int size;
+
+    private ClassSchedule(final List<List<Item>> chunks, final int size) {
+        this.chunks = chunks;
+        this.size = size;
+    }
+
+    /**
+     * @param includeReused Whether to include classes reused from a previous run. They are never processed, so they
+     *     are scheduled last.
+     */
+    static ClassSchedule create(final HypoContext context, final boolean includeReused, final int workers) {
+        final List<Item> items = new ArrayList<>();
+        long totalCost = 0;
+        for (final ClassData classData : context.getProvider().allClasses()) {
+            final boolean reused = IncrementalPage.isReused(classData);
+            if (reused && !includeReused) {
+                continue;
+            }
+            final AsmClassData asmClassData = (AsmClassData) classData;
+            final int cost = reused ? 0 : cost(asmClassData);
+            items.add(new Item(items.size(), asmClassData, reused, cost));
+            totalCost += cost;
+        }
+        // stable, so classes of equal cost keep the provider's order
+        items.sort(Comparator.comparingInt(Item::cost).reversed());
+
+        final long targetCost = Math.max(1, totalCost / ((long) workers * CHUNKS_PER_WORKER));
+        final List<List<Item>> chunks = new ArrayList<>();
+        List<Item> chunk = new ArrayList<>();
+        long chunkCost = 0;
+        for (final Item item : items) {
+            chunk.add(item);
+            chunkCost += item.cost();
+            if (chunkCost >= targetCost) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>();
+                chunkCost = 0;
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+
+        return new ClassSchedule(chunks, items.size());
+    }
+
+    static int parallelism(final HypoContext context) {
+        final int parallelism = context.getConfig().getParallelism();
+        return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Estimates the cost of processing {@code classData}, based on the number of instructions in it.
+     */
+    static int cost(final AsmClassData classData) {
+        int cost = 1;
+        for (final MethodNode method : classData.getNode().methods) {
+            cost += 1 + method.instructions.size();
+        }
+        return cost;
+    }
+
+    int chunkCount() {
+        return this.chunks.size();
+    }
+
+    List<Item> chunk(final int index) {
+        return this.chunks.get(index);
+    }
+
+    /**
+     * The total number of classes in this schedule.
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * @param index The position of the class in the class provider's order (counting reused classes only if they are
+     *     included), which is the order output is written in regardless of the order classes are processed in.
+     */
+    record Item(int index, AsmClassData classData, boolean reused, int cost) {}
+}
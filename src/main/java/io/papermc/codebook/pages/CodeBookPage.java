@@ -33,6 +33,7 @@ import dev.denwav.hypo.core.HypoConfig;
 import dev.denwav.hypo.core.HypoContext;
 import io.papermc.codebook.config.CodeBookContext;
 import io.papermc.codebook.report.Reports;
+import io.papermc.codebook.util.StageCache;
 import jakarta.inject.Qualifier;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
@@ -41,6 +42,7 @@ import java.lang.annotation.Target;
 import java.nio.file.Path;
 import java.util.IdentityHashMap;
 import java.util.List;
+import org.cadixdev.lorenz.MappingSet;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 public abstract class CodeBookPage {
@@ -48,6 +50,20 @@ public abstract class CodeBookPage {
 
     public abstract void exec();
 
+    public void exec(final PageContext context) {
+        this.clearBindings();
+        this.exec();
+        this.publishBindings(context);
+    }
+
+    void clearBindings() {
+        this.injections.clear();
+    }
+
+    void publishBindings(final PageContext context) {
+        context.putAll(this.injections);
+    }
+
     public Module exec(final Module module) {
         this.injections.clear();
         this.exec();
@@ -122,6 +138,13 @@ public abstract class CodeBookPage {
         Key<Path> KEY = Key.get(Path.class, TempDir.class);
     }
 
+    @Qualifier
+    @Target(ElementType.PARAMETER)
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface Cache {
+        Key<StageCache> KEY = Key.get(StageCache.class, Cache.class);
+    }
+
     @Qualifier
     @Target(ElementType.PARAMETER)
     @Retention(RetentionPolicy.RUNTIME)
@@ -130,6 +153,13 @@ public abstract class CodeBookPage {
         Key<HypoConfig> CONFIG_KEY = Key.get(HypoConfig.class, Hypo.class);
     }
 
+    @Qualifier
+    @Target(ElementType.PARAMETER)
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface ParamMappings {
+        Key<MappingSet> KEY = Key.get(MappingSet.class, ParamMappings.class);
+    }
+
     @Qualifier
     @Target(ElementType.PARAMETER)
     @Retention(RetentionPolicy.RUNTIME)
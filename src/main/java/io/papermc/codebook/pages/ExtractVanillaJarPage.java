@@ -25,6 +25,7 @@ package io.papermc.codebook.pages;
 import at.favre.lib.bytes.Bytes;
 import io.papermc.codebook.exceptions.UnexpectedException;
 import io.papermc.codebook.util.IOUtil;
+import io.papermc.codebook.util.StageCache;
 import jakarta.inject.Inject;
 import java.io.IOException;
 import java.nio.file.FileSystem;
@@ -40,15 +41,18 @@ public final class ExtractVanillaJarPage extends CodeBookPage {
     private final Path inputJar;
     private final @Nullable List<Path> classpathJars;
     private final Path tempDir;
+    private final @Nullable StageCache cache;
 
     @Inject
     public ExtractVanillaJarPage(
             @InputJar final Path inputJar,
             @ClasspathJars final @Nullable List<Path> classpathJars,
-            @TempDir final Path tempDir) {
+            @TempDir final Path tempDir,
+            @Cache final @Nullable StageCache cache) {
         this.inputJar = inputJar;
         this.classpathJars = classpathJars;
         this.tempDir = tempDir;
+        this.cache = cache;
     }
 
     @Override
@@ -69,16 +73,7 @@ public final class ExtractVanillaJarPage extends CodeBookPage {
             final var librariesFile = rootDir.resolve("META-INF/libraries.list");
             final var libraries = Library.parseFile(librariesFile);
 
-            final var internalPath = Path.of(version.filePath);
-
-            final var serverJar = this.tempDir.resolve(internalPath.getFileName());
-            IOUtil.copy(versionsDir.resolve(version.filePath), serverJar);
-
-            final var actualHash = Bytes.from(serverJar.toFile()).hashSha256().encodeHex();
-            if (!version.sha256.equalsIgnoreCase(actualHash)) {
-                throw new UnexpectedException("Failed to copy " + internalPath.getFileName()
-                        + " from vanilla jar successfully (hash does not match)");
-            }
+            final var serverJar = this.extract(versionsDir.resolve(version.filePath), version.sha256, this.tempDir);
 
             final var libs = new ArrayList<Path>();
             this.bind(ClasspathJars.KEY).to(libs);
@@ -86,18 +81,7 @@ public final class ExtractVanillaJarPage extends CodeBookPage {
             final var outLibsDir = this.tempDir.resolve("libraries");
             IOUtil.createDirectories(outLibsDir);
             for (final var library : libraries) {
-                final var libInternalPath = Path.of(library.filePath);
-                final var libFile = outLibsDir.resolve(libInternalPath.getFileName());
-                IOUtil.copy(librariesDir.resolve(library.filePath), libFile);
-
-                libs.add(libFile);
-
-                final var libActualHash =
-                        Bytes.from(libFile.toFile()).hashSha256().encodeHex();
-                if (!library.sha256.equalsIgnoreCase(libActualHash)) {
-                    throw new UnexpectedException("Failed to copy " + libInternalPath.getFileName()
-                            + " from vanilla jar successfully (hash does not match)");
-                }
+                libs.add(this.extract(librariesDir.resolve(library.filePath), library.sha256, outLibsDir));
             }
 
             this.bind(InputJar.KEY).to(serverJar);
@@ -106,6 +90,30 @@ public final class ExtractVanillaJarPage extends CodeBookPage {
         }
     }
 
+    private Path extract(final Path source, final String sha256, final Path outDir) {
+        final String fileName = source.getFileName().toString();
+        if (this.cache == null) {
+            final Path file = outDir.resolve(fileName);
+            IOUtil.copy(source, file);
+            verifyHash(file, sha256, fileName);
+            return file;
+        }
+
+        // bundled files are already identified by their hash, so the cache lookup doesn't have to read them
+        return this.cache.computeIfAbsent(StageCache.ARTIFACTS, sha256, fileName, file -> {
+            IOUtil.copy(source, file);
+            verifyHash(file, sha256, fileName);
+        });
+    }
+
+    private static void verifyHash(final Path file, final String sha256, final String fileName) {
+        final var actualHash = Bytes.from(file.toFile()).hashSha256().encodeHex();
+        if (!sha256.equalsIgnoreCase(actualHash)) {
+            throw new UnexpectedException(
+                    "Failed to copy " + fileName + " from vanilla jar successfully (hash does not match)");
+        }
+    }
+
     private record Version(String sha256, String version, String filePath) {
         private static Version parseFile(final Path file) {
             final List<String> lines;
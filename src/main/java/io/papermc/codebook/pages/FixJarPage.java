@@ -39,6 +39,7 @@ import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.tree.AnnotationNode;
 import org.objectweb.asm.tree.MethodNode;
 
+@AsmProcessorPage.Fusible
 public final class FixJarPage extends AsmProcessorPage {
 
     @Inject
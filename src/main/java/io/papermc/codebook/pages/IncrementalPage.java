@@ -0,0 +1,276 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.pages;
+
+import daomephsta.unpick.constantmappers.datadriven.tree.GroupDefinition;
+import daomephsta.unpick.constantmappers.datadriven.tree.UnpickV3Visitor;
+import daomephsta.unpick.constantmappers.datadriven.tree.expr.Expression;
+import daomephsta.unpick.constantmappers.datadriven.tree.expr.ExpressionVisitor;
+import daomephsta.unpick.constantmappers.datadriven.tree.expr.FieldExpression;
+import dev.denwav.hypo.asm.AsmClassData;
+import dev.denwav.hypo.core.HypoContext;
+import dev.denwav.hypo.hydrate.generic.HypoHydration;
+import dev.denwav.hypo.hydrate.generic.LambdaClosure;
+import dev.denwav.hypo.hydrate.generic.LocalClassClosure;
+import dev.denwav.hypo.model.data.ClassData;
+import dev.denwav.hypo.model.data.HypoKey;
+import dev.denwav.hypo.model.data.MethodData;
+import io.papermc.codebook.config.CodeBookContext;
+import io.papermc.codebook.config.CodeBookIncremental;
+import io.papermc.codebook.exceptions.UnexpectedException;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Compares the input jar against the input of a previous run. Classes which are unchanged, and whose
+ * {@link ClassDependencies dependencies} are unchanged as well, have their previous output stored under
+ * {@link #PREVIOUS_OUTPUT}. Later pages skip those classes and the output writer copies the stored bytes. Nothing is
+ * reused if the previous output has no {@link RunFingerprint} or a different one, or if a class which the unpick
+ * definitions take constants from changed.
+ */
+public final class IncrementalPage extends CodeBookPage {
+
+    public static final HypoKey<byte[]> PREVIOUS_OUTPUT = HypoKey.create("Previous Output");
+
+    private final HypoContext context;
+    private final CodeBookContext codeBookContext;
+    private final Path inputJar;
+    private final List<Path> classpathJars;
+    private final @Nullable Path unpickDefinitions;
+
+    @Inject
+    public IncrementalPage(
+            @Hypo final HypoContext context,
+            @Context final CodeBookContext codeBookContext,
+            @InputJar final Path inputJar,
+            @ClasspathJars final List<Path> classpathJars,
+            @UnpickDefinitions final @Nullable Path unpickDefinitions) {
+        this.context = context;
+        this.codeBookContext = codeBookContext;
+        this.inputJar = inputJar;
+        this.classpathJars = classpathJars;
+        this.unpickDefinitions = unpickDefinitions;
+    }
+
+    public static boolean isReused(final ClassData classData) {
+        return classData.contains(PREVIOUS_OUTPUT);
+    }
+
+    @Override
+    public void exec() {
+        final @Nullable CodeBookIncremental incremental = this.codeBookContext.incremental();
+        if (incremental == null) {
+            return;
+        }
+
+        try {
+            this.reusePreviousOutput(incremental);
+        } catch (final IOException e) {
+            throw new UnexpectedException("Failed to read previous run for incremental remapping", e);
+        }
+    }
+
+    private void reusePreviousOutput(final CodeBookIncremental incremental) throws IOException {
+        final @Nullable RunFingerprint previousFingerprint = RunFingerprint.read(incremental.previousOutput());
+        if (previousFingerprint == null) {
+            System.err.println(
+                    "No run fingerprint found for " + incremental.previousOutput() + ", processing every class");
+            return;
+        }
+        final List<String> differences = RunFingerprint.of(
+                        this.codeBookContext, this.unpickDefinitions, this.classpathJars)
+                .differences(previousFingerprint);
+        if (!differences.isEmpty()) {
+            System.err.println(
+                    "The previous run used a different " + String.join(", ", differences) + ", processing every class");
+            return;
+        }
+
+        final Map<String, byte[]> previous = hashClasses(incremental.previousInput());
+        final Map<String, byte[]> current = hashClasses(this.inputJar);
+
+        try (final ZipFile previousOutput =
+                new ZipFile(incremental.previousOutput().toFile())) {
+            final Set<ClassData> changed = new HashSet<>();
+            final List<ClassData> allClasses = new ArrayList<>();
+            for (final ClassData classData : this.context.getProvider().allClasses()) {
+                allClasses.add(classData);
+
+                final byte @Nullable [] previousHash = previous.get(classData.name());
+                final byte @Nullable [] currentHash = current.get(classData.name());
+                if (previousHash == null
+                        || currentHash == null
+                        || !Arrays.equals(previousHash, currentHash)
+                        || previousOutput.getEntry(classData.name() + ".class") == null) {
+                    changed.add(classData);
+                }
+            }
+
+            final Set<ClassData> affected = affectedClasses(allClasses, changed);
+            for (final ClassData classData : allClasses) {
+                if (affected.contains(classData)) {
+                    continue;
+                }
+
+                final ZipEntry entry = previousOutput.getEntry(classData.name() + ".class");
+                try (final InputStream input = previousOutput.getInputStream(entry)) {
+                    classData.store(PREVIOUS_OUTPUT, input.readAllBytes());
+                }
+            }
+        }
+    }
+
+    private Set<ClassData> affectedClasses(final List<ClassData> allClasses, final Set<ClassData> changed)
+            throws IOException {
+        final ClassDependencies dependencies = new ClassDependencies();
+        for (final ClassData classData : allClasses) {
+            final @Nullable ClassData superClass = classData.superClass();
+            if (superClass != null) {
+                dependencies.supertype(superClass.name(), classData.name());
+            }
+            for (final ClassData iface : classData.interfaces()) {
+                dependencies.supertype(iface.name(), classData.name());
+            }
+
+            final @Nullable List<LocalClassClosure> localClasses = classData.get(HypoHydration.LOCAL_CLASSES);
+            if (localClasses != null) {
+                for (final LocalClassClosure closure : localClasses) {
+                    dependencies.closure(
+                            closure.getContainingMethod().parentClass().name(), classData.name());
+                }
+            }
+
+            for (final MethodData method : classData.methods()) {
+                final @Nullable List<LambdaClosure> lambdas = method.get(HypoHydration.LAMBDA_CALLS);
+                if (lambdas != null) {
+                    for (final LambdaClosure closure : lambdas) {
+                        dependencies.closure(
+                                closure.getContainingMethod().parentClass().name(),
+                                closure.getLambda().parentClass().name());
+                    }
+                }
+            }
+
+            dependencies.references(((AsmClassData) classData).getNode());
+        }
+
+        final Set<String> affectedNames =
+                dependencies.affected(changed.stream().map(ClassData::name).toList());
+        if (this.unpickDefinitions != null) {
+            final Set<String> constantOwners = constantOwners(this.unpickDefinitions);
+            if (affectedNames.stream().anyMatch(constantOwners::contains)) {
+                // which classes use the constants of a class is only known after unpicking them
+                return new HashSet<>(allClasses);
+            }
+        }
+
+        final Set<ClassData> affected = new HashSet<>();
+        for (final ClassData classData : allClasses) {
+            if (affectedNames.contains(classData.name())) {
+                affected.add(classData);
+            }
+        }
+        return affected;
+    }
+
+    private static Set<String> constantOwners(final Path unpickDefinitions) throws IOException {
+        final Set<String> owners = new HashSet<>();
+        UnpickPage.readDefinitions(unpickDefinitions, new UnpickV3Visitor() {
+            @Override
+            public void visitGroupDefinition(final GroupDefinition groupDefinition) {
+                for (final Expression constant : groupDefinition.constants()) {
+                    constant.accept(new ExpressionVisitor() {
+                        @Override
+                        public void visitFieldExpression(final FieldExpression fieldExpression) {
+                            owners.add(fieldExpression.className.replace('.', '/'));
+                        }
+                    });
+                }
+            }
+        });
+        return owners;
+    }
+
+    private static Map<String, byte[]> hashClasses(final Path jar) throws IOException {
+        try (final FileSystem fs = FileSystems.newFileSystem(jar)) {
+            final Path root = fs.getPath("/");
+            final Path versionsFile = root.resolve("META-INF/versions.list");
+            if (Files.notExists(versionsFile)) {
+                try (final InputStream input = Files.newInputStream(jar)) {
+                    return hashClasses(input);
+                }
+            }
+
+            // bundler jar, compare against the server jar inside it
+            final List<String> versions = Files.readAllLines(versionsFile);
+            if (versions.isEmpty() || versions.get(0).split("\t").length != 3) {
+                throw new UnexpectedException("versions.list file is invalid in " + jar);
+            }
+            final Path serverJar =
+                    root.resolve("META-INF/versions").resolve(versions.get(0).split("\t")[2]);
+
+            try (final InputStream input = Files.newInputStream(serverJar)) {
+                return hashClasses(input);
+            }
+        }
+    }
+
+    private static Map<String, byte[]> hashClasses(final InputStream jar) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new UnexpectedException("SHA-256 is not available", e);
+        }
+
+        final Map<String, byte[]> hashes = new HashMap<>();
+        final ZipInputStream zip = new ZipInputStream(jar);
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            final String name = entry.getName();
+            if (entry.isDirectory() || !name.endsWith(".class") || name.startsWith("META-INF/")) {
+                continue;
+            }
+            hashes.put(name.substring(0, name.length() - ".class".length()), digest.digest(zip.readAllBytes()));
+        }
+        return hashes;
+    }
+}
@@ -60,6 +60,7 @@ public final class InspectJarPage extends CodeBookPage {
     @Override
     public void exec() {
         final MappingSet lorenzMappings = this.loadMappings();
+        this.bind(ParamMappings.KEY).to(lorenzMappings);
 
         final HypoContext ctx;
 
@@ -0,0 +1,209 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.pages;
+
+import dev.denwav.hypo.asm.AsmMethodData;
+import dev.denwav.hypo.core.HypoContext;
+import dev.denwav.hypo.model.data.ClassData;
+import dev.denwav.hypo.model.data.MethodData;
+import io.papermc.codebook.config.CodeBookContext;
+import io.papermc.codebook.exceptions.UnexpectedException;
+import io.papermc.codebook.exceptions.UserErrorException;
+import io.papermc.codebook.lvt.LvtNameCache;
+import io.papermc.codebook.lvt.LvtNamer;
+import io.papermc.codebook.lvt.LvtScopes;
+import io.papermc.codebook.lvt.LvtTrace;
+import io.papermc.codebook.lvt.NamingRules;
+import io.papermc.codebook.metrics.PageListener;
+import io.papermc.codebook.metrics.ProgressTracker;
+import io.papermc.codebook.report.Reports;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.cadixdev.lorenz.MappingSet;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Names local variables and parameters. Methods which share names through lambdas or local classes are named together
+ * on one worker, outer scopes first, so no locking is needed and the names don't depend on scheduling.
+ */
+public final class LvtNamingPage extends CodeBookPage {
+
+    private final HypoContext context;
+    private final MappingSet mappings;
+    private final Reports reports;
+    private final CodeBookContext codeBookContext;
+
+    @Inject
+    public LvtNamingPage(
+            @Hypo final HypoContext context,
+            @ParamMappings final MappingSet mappings,
+            @Report final Reports reports,
+            @Context final CodeBookContext codeBookContext) {
+        this.context = context;
+        this.mappings = mappings;
+        this.reports = reports;
+        this.codeBookContext = codeBookContext;
+    }
+
+    @Override
+    public void exec() {
+        final @Nullable LvtNameCache cache = this.openCache();
+        try (final @Nullable LvtTrace trace = this.openTrace()) {
+            this.exec(cache, trace);
+        } catch (final IOException e) {
+            throw new UnexpectedException("Failed to write local variable naming trace", e);
+        }
+
+        if (cache != null) {
+            try {
+                cache.save();
+            } catch (final IOException e) {
+                throw new UnexpectedException("Failed to write local variable name cache", e);
+            }
+        }
+    }
+
+    private void exec(final @Nullable LvtNameCache cache, final @Nullable LvtTrace trace) {
+        final LvtNamer namer;
+        final List<Group> groups = new ArrayList<>();
+        try {
+            namer = new LvtNamer(
+                    this.context, this.mappings, this.reports, loadRules(this.codeBookContext), cache, trace);
+
+            final List<ClassData> classes = new ArrayList<>();
+            for (final ClassData classData : this.context.getProvider().allClasses()) {
+                if (!IncrementalPage.isReused(classData)) {
+                    classes.add(classData);
+                }
+            }
+            for (final List<MethodData> methods : LvtScopes.groups(classes)) {
+                groups.add(new Group(methods, cost(methods)));
+            }
+        } catch (final IOException e) {
+            throw new UnexpectedException("Failed to determine local variable scopes", e);
+        }
+        // largest first, so a large group isn't left running alone at the end
+        groups.sort(Comparator.comparingLong(Group::cost).reversed());
+
+        final int workers = Math.min(ClassSchedule.parallelism(this.context), groups.size());
+        final PageListener listener =
+                Objects.requireNonNullElse(this.codeBookContext.pageListener(), PageListener.NOOP);
+        try (final ProgressTracker progress = ProgressTracker.start(
+                this.getClass().getSimpleName(), "method groups", groups.size(), workers, listener)) {
+            this.nameGroups(namer, groups, workers, progress);
+        }
+    }
+
+    static NamingRules loadRules(final CodeBookContext codeBookContext) {
+        final @Nullable Path file = codeBookContext.lvtRules();
+        if (file == null) {
+            return NamingRules.defaults();
+        }
+        try {
+            return NamingRules.load(file);
+        } catch (final IOException e) {
+            throw new UserErrorException("Failed to read local variable naming rules " + file, e);
+        } catch (final IllegalArgumentException e) {
+            throw new UserErrorException("Invalid local variable naming rules in " + file + ", " + e.getMessage(), e);
+        }
+    }
+
+    private @Nullable LvtTrace openTrace() {
+        final @Nullable Path file = this.codeBookContext.lvtTrace();
+        if (file == null) {
+            return null;
+        }
+        try {
+            return LvtTrace.open(file);
+        } catch (final IOException e) {
+            throw new UnexpectedException("Failed to create local variable naming trace " + file, e);
+        }
+    }
+
+    private @Nullable LvtNameCache openCache() {
+        final @Nullable Path cacheDir = this.codeBookContext.cacheDir();
+        if (cacheDir == null) {
+            return null;
+        }
+        final Path dir = cacheDir.resolve("lvt");
+        try {
+            return LvtNameCache.open(dir, LvtNameCache.DEFAULT_MAX_BYTES);
+        } catch (final IOException e) {
+            throw new UnexpectedException("Failed to read local variable name cache in " + dir, e);
+        }
+    }
+
+    private void nameGroups(
+            final LvtNamer namer, final List<Group> groups, final int workers, final ProgressTracker progress) {
+        final String page = this.getClass().getSimpleName();
+        final AtomicInteger next = new AtomicInteger();
+        final AtomicBoolean failed = new AtomicBoolean();
+        final var tasks = new ArrayList<Future<?>>();
+        for (int i = 0; i < workers; i++) {
+            final int worker = i;
+            tasks.add(this.context.getExecutor().submit(() -> {
+                int index;
+                while ((index = next.getAndIncrement()) < groups.size() && !failed.get()) {
+                    final List<MethodData> methods = groups.get(index).methods();
+                    final MethodData first = methods.get(0);
+                    final String firstName = first.parentClass().name() + "#" + first.name() + first.descriptorText();
+                    progress.started(worker, firstName, page);
+                    try {
+                        namer.fillNames(methods);
+                    } catch (final Exception e) {
+                        failed.set(true);
+                        throw new UnexpectedException(
+                                "Failed to name locals of " + firstName + " and the methods sharing its scope", e);
+                    }
+                    progress.finished(worker);
+                }
+            }));
+        }
+
+        // the trace and cache are closed once this returns, so wait for workers still naming after a failure
+        final @Nullable Throwable error = Workers.awaitAll(tasks, failed);
+        if (error instanceof final UnexpectedException e) {
+            throw e;
+        } else if (error != null) {
+            throw new UnexpectedException("Failed to name local variables", error);
+        }
+    }
+
+    private static long cost(final List<MethodData> methods) {
+        long cost = 0;
+        for (final MethodData method : methods) {
+            cost += 1 + ((AsmMethodData) method).getNode().instructions.size();
+        }
+        return cost;
+    }
+
+    private record Group(List<MethodData> methods, long cost) {}
+}
@@ -0,0 +1,93 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.pages;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Key;
+import com.google.inject.Module;
+import com.google.inject.binder.LinkedBindingBuilder;
+import com.google.inject.util.Providers;
+import io.papermc.codebook.exceptions.UnexpectedException;
+import io.papermc.codebook.report.Reports;
+import java.util.HashMap;
+import java.util.Map;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * The values pages are created from, keyed by the same {@link Key}s pages bind their results to. Values may be bound to
+ * {@code null}, which is distinct from not being bound at all.
+ */
+public final class PageContext {
+
+    private final Map<Key<?>, @Nullable Object> values = new HashMap<>();
+
+    public <T> PageContext put(final Key<T> key, final @Nullable T value) {
+        this.values.put(key, value);
+        return this;
+    }
+
+    void putAll(final Map<Key<?>, @Nullable Object> values) {
+        this.values.putAll(values);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> @Nullable T get(final Key<T> key) {
+        if (!this.values.containsKey(key)) {
+            throw new UnexpectedException("No value bound for " + key);
+        }
+        return (T) this.values.get(key);
+    }
+
+    public <T> T require(final Key<T> key) {
+        final @Nullable T value = this.get(key);
+        if (value == null) {
+            throw new UnexpectedException("Value bound for " + key + " is null");
+        }
+        return value;
+    }
+
+    /**
+     * Creates a Guice module which binds every value in this context, for pages which need to be created through
+     * Guice.
+     */
+    public Module toModule() {
+        final Map<Key<?>, @Nullable Object> values = new HashMap<>(this.values);
+        return new AbstractModule() {
+            @Override
+            protected void configure() {
+                values.forEach((k, v) -> {
+                    @SuppressWarnings("unchecked")
+                    final var binding = (LinkedBindingBuilder<Object>) this.bind(k);
+                    if (v == null) {
+                        binding.toProvider(Providers.of(null));
+                    } else {
+                        binding.toInstance(v);
+                    }
+                });
+                if (values.get(CodeBookPage.Report.KEY) instanceof final Reports reports) {
+                    this.install(reports);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.pages;
+
+import com.google.inject.Guice;
+import java.util.function.Function;
+
+public interface PageFactory<P extends CodeBookPage> {
+
+    Class<P> type();
+
+    P create(PageContext context);
+
+    static <P extends CodeBookPage> PageFactory<P> of(final Class<P> type, final Function<PageContext, P> factory) {
+        return new PageFactory<>() {
+            @Override
+            public Class<P> type() {
+                return type;
+            }
+
+            @Override
+            public P create(final PageContext context) {
+                return factory.apply(context);
+            }
+        };
+    }
+
+    /**
+     * Creates pages through a Guice injector built from the {@link PageContext}, for pages which rely on
+     * {@code @Inject} constructors.
+     */
+    static <P extends CodeBookPage> PageFactory<P> guice(final Class<P> type) {
+        return of(type, context -> Guice.createInjector(context.toModule()).getInstance(type));
+    }
+}
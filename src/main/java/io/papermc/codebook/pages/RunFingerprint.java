@@ -0,0 +1,134 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.pages;
+
+import io.papermc.codebook.CodeBook;
+import io.papermc.codebook.config.CodeBookContext;
+import io.papermc.codebook.exceptions.UnexpectedException;
+import io.papermc.codebook.lvt.LvtNamer;
+import io.papermc.codebook.util.StageCache;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Everything besides the input classes the output of a run depends on. It's written next to the output jar, and an
+ * incremental run only reuses classes from a previous output whose fingerprint matches its own.
+ */
+public final class RunFingerprint {
+
+    private static final String SUFFIX = ".fingerprint";
+
+    private final Map<String, String> values;
+
+    private RunFingerprint(final Map<String, String> values) {
+        this.values = values;
+    }
+
+    public static RunFingerprint of(
+            final CodeBookContext context,
+            final @Nullable Path unpickDefinitions,
+            final @Nullable List<Path> classpathJars) {
+        final Map<String, String> values = new LinkedHashMap<>();
+        values.put(
+                "codebook",
+                Objects.requireNonNullElse(CodeBook.class.getPackage().getSpecificationVersion(), "unknown"));
+        values.put("lvt-engine", Integer.toString(LvtNamer.ENGINE_VERSION));
+        values.put("java", Integer.toString(Runtime.version().feature()));
+        values.put("unpick", unpickDefinitions == null ? "none" : StageCache.sha256(unpickDefinitions));
+        values.put(
+                "lvt-rules",
+                HexFormat.of().formatHex(LvtNamingPage.loadRules(context).hash()));
+
+        final TreeSet<String> libraries = new TreeSet<>();
+        if (classpathJars != null) {
+            for (final Path jar : classpathJars) {
+                libraries.add(jar.getFileName().toString());
+            }
+        }
+        values.put("libraries", String.join(",", libraries));
+        return new RunFingerprint(values);
+    }
+
+    /**
+     * Reads the fingerprint written next to {@code outputJar}, or returns {@code null} if there is none.
+     */
+    public static @Nullable RunFingerprint read(final Path outputJar) {
+        final Path file = file(outputJar);
+        if (Files.notExists(file)) {
+            return null;
+        }
+
+        final Map<String, String> values = new LinkedHashMap<>();
+        try {
+            for (final String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                final int split = line.indexOf('=');
+                if (split != -1) {
+                    values.put(line.substring(0, split), line.substring(split + 1));
+                }
+            }
+        } catch (final IOException e) {
+            throw new UnexpectedException("Failed to read run fingerprint " + file, e);
+        }
+        return new RunFingerprint(values);
+    }
+
+    public void write(final Path outputJar) {
+        final List<String> lines = new ArrayList<>();
+        this.values.forEach((key, value) -> lines.add(key + "=" + value));
+        final Path file = file(outputJar);
+        try {
+            Files.write(file, lines, StandardCharsets.UTF_8);
+        } catch (final IOException e) {
+            throw new UnexpectedException("Failed to write run fingerprint " + file, e);
+        }
+    }
+
+    public static Path file(final Path outputJar) {
+        return outputJar.resolveSibling(outputJar.getFileName() + SUFFIX);
+    }
+
+    /**
+     * Returns the names of the values which differ between this fingerprint and {@code other}.
+     */
+    List<String> differences(final RunFingerprint other) {
+        final TreeSet<String> keys = new TreeSet<>(this.values.keySet());
+        keys.addAll(other.values.keySet());
+        final List<String> differences = new ArrayList<>();
+        for (final String key : keys) {
+            if (!Objects.equals(this.values.get(key), other.values.get(key))) {
+                differences.add(key);
+            }
+        }
+        return differences;
+    }
+}
@@ -24,6 +24,7 @@ package io.papermc.codebook.pages;
 
 import io.papermc.codebook.exceptions.UnexpectedException;
 import io.papermc.codebook.util.IOUtil;
+import io.papermc.codebook.util.StageCache;
 import jakarta.inject.Inject;
 import java.io.IOException;
 import java.io.InputStream;
@@ -44,29 +45,55 @@ public final class StripSignaturesPage extends CodeBookPage {
     private static final String DIGEST_SUFFIX = "-digest";
     private static final int DIGEST_SUFFIX_LENGTH = DIGEST_SUFFIX.length();
 
+    private static final String CACHE_STAGE = "unsigned";
+    private static final String CACHE_UNCHANGED = "unchanged";
+
     private final Path inputJar;
     private final Path tempDir;
+    private final @Nullable StageCache cache;
 
     @Inject
-    public StripSignaturesPage(@InputJar final Path inputJar, @TempDir final Path tempDir) {
+    public StripSignaturesPage(
+            @InputJar final Path inputJar, @TempDir final Path tempDir, @Cache final @Nullable StageCache cache) {
         this.inputJar = inputJar;
         this.tempDir = tempDir;
+        this.cache = cache;
     }
 
     @Override
     public void exec() {
+        final String fileName = "unsigned-" + this.inputJar.getFileName();
+
+        final @Nullable String hash = this.cache != null ? this.cache.hash(this.inputJar) : null;
+        if (this.cache != null && hash != null) {
+            if (this.cache.find(CACHE_STAGE, hash, CACHE_UNCHANGED) != null) {
+                return;
+            }
+            final @Nullable Path cachedJar = this.cache.find(CACHE_STAGE, hash, fileName);
+            if (cachedJar != null) {
+                this.bind(InputJar.KEY).to(cachedJar);
+                return;
+            }
+        }
+
         try (final FileSystem inputFs = FileSystems.newFileSystem(this.inputJar)) {
             final Path inputRoot = inputFs.getPath("/");
             final @Nullable Manifest strippedManifest = stripManifestDigestEntries(inputRoot);
             if (strippedManifest == null && !containsSignatureFiles(inputRoot)) {
+                if (this.cache != null && hash != null) {
+                    this.cache.computeIfAbsent(CACHE_STAGE, hash, CACHE_UNCHANGED, Files::createFile);
+                }
                 return;
             }
 
-            final Path strippedJar = this.tempDir.resolve("unsigned-" + this.inputJar.getFileName());
-            IOUtil.deleteIfExists(strippedJar);
-
-            try (final FileSystem outputFs = FileSystems.newFileSystem(strippedJar, CREATE_FS_ARGS)) {
-                copyContents(inputRoot, outputFs.getPath("/"), strippedManifest);
+            final Path strippedJar;
+            if (this.cache != null && hash != null) {
+                strippedJar = this.cache.computeIfAbsent(
+                        CACHE_STAGE, hash, fileName, jar -> writeStrippedJar(inputRoot, jar, strippedManifest));
+            } else {
+                strippedJar = this.tempDir.resolve(fileName);
+                IOUtil.deleteIfExists(strippedJar);
+                writeStrippedJar(inputRoot, strippedJar, strippedManifest);
             }
 
             this.bind(InputJar.KEY).to(strippedJar);
@@ -75,6 +102,14 @@ public final class StripSignaturesPage extends CodeBookPage {
         }
     }
 
+    private static void writeStrippedJar(
+            final Path inputRoot, final Path strippedJar, final @Nullable Manifest strippedManifest)
+            throws IOException {
+        try (final FileSystem outputFs = FileSystems.newFileSystem(strippedJar, CREATE_FS_ARGS)) {
+            copyContents(inputRoot, outputFs.getPath("/"), strippedManifest);
+        }
+    }
+
     private static boolean containsSignatureFiles(final Path inputRoot) throws IOException {
         try (final var paths = Files.walk(inputRoot)) {
             for (final Path path : (Iterable<Path>) paths::iterator) {
@@ -29,6 +29,7 @@ import daomephsta.unpick.api.constantgroupers.ConstantGroupers;
 import daomephsta.unpick.constantmappers.datadriven.parser.v3.UnpickV3Reader;
 import daomephsta.unpick.constantmappers.datadriven.tree.ForwardingUnpickV3Visitor;
 import daomephsta.unpick.constantmappers.datadriven.tree.GroupDefinition;
+import daomephsta.unpick.constantmappers.datadriven.tree.UnpickV3Visitor;
 import daomephsta.unpick.constantmappers.datadriven.tree.expr.Expression;
 import daomephsta.unpick.constantmappers.datadriven.tree.expr.ExpressionVisitor;
 import daomephsta.unpick.constantmappers.datadriven.tree.expr.FieldExpression;
@@ -37,6 +38,7 @@ import dev.denwav.hypo.core.HypoContext;
 import dev.denwav.hypo.model.data.ClassData;
 import jakarta.inject.Inject;
 import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.file.FileSystem;
@@ -51,10 +53,14 @@ import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.objectweb.asm.tree.ClassNode;
 
+@AsmProcessorPage.Fusible
 public final class UnpickPage extends AsmProcessorPage {
 
+    private static final String ZIP_DEFINITIONS = "extras/definitions.unpick";
+
     private final List<Path> classpath;
     private final @Nullable Path unpickDefinitions;
+    private final List<Closeable> resources = new ArrayList<>();
     private @MonotonicNonNull ConstantUninliner uninliner;
 
     @Inject
@@ -68,39 +74,68 @@ public final class UnpickPage extends AsmProcessorPage {
     }
 
     @Override
-    public void exec() {
+    protected boolean prepare() {
         if (this.unpickDefinitions == null) {
+            return false;
+        }
+
+        try {
+            if (isZip(this.unpickDefinitions)) {
+                final FileSystem definitionsFs = FileSystems.newFileSystem(this.unpickDefinitions);
+                this.resources.add(definitionsFs);
+                this.createUninliner(definitionsFs.getPath(ZIP_DEFINITIONS));
+            } else {
+                this.createUninliner(this.unpickDefinitions);
+            }
+        } catch (final IOException e) {
+            this.finish();
+            throw new UncheckedIOException(e);
+        }
+        return true;
+    }
+
+    /**
+     * Passes the definitions in {@code unpickDefinitions}, either a definitions file or a jar containing one, to
+     * {@code visitor}.
+     */
+    static void readDefinitions(final Path unpickDefinitions, final UnpickV3Visitor visitor) throws IOException {
+        if (!isZip(unpickDefinitions)) {
+            try (final BufferedReader reader = Files.newBufferedReader(unpickDefinitions)) {
+                new UnpickV3Reader(reader).accept(visitor);
+            }
             return;
         }
 
-        boolean isZip;
-        try (final ZipFile zf = new ZipFile(this.unpickDefinitions.toFile())) {
-            isZip = true;
+        try (final FileSystem definitionsFs = FileSystems.newFileSystem(unpickDefinitions);
+                final BufferedReader reader = Files.newBufferedReader(definitionsFs.getPath(ZIP_DEFINITIONS))) {
+            new UnpickV3Reader(reader).accept(visitor);
+        }
+    }
+
+    private static boolean isZip(final Path file) {
+        try (final ZipFile ignored = new ZipFile(file.toFile())) {
+            return true;
         } catch (final ZipException e) {
-            isZip = false;
+            return false;
         } catch (final IOException e) {
             throw new UncheckedIOException(e);
         }
+    }
 
-        final List<ZipFile> zips = new ArrayList<>();
-
-        if (isZip) {
-            try (final FileSystem definitionsFs = FileSystems.newFileSystem(this.unpickDefinitions)) {
-                final Path definitionsPath = definitionsFs.getPath("extras/definitions.unpick");
-                this.unpick(definitionsPath, zips);
-            } catch (final IOException e) {
-                throw new UncheckedIOException(e);
-            }
-        } else {
+    @Override
+    protected void finish() {
+        // close in reverse order, the definitions file system must outlive the reader using it
+        for (final Closeable resource : this.resources.reversed()) {
             try {
-                this.unpick(this.unpickDefinitions, zips);
+                resource.close();
             } catch (final IOException e) {
-                throw new UncheckedIOException(e);
+                // Ignore
             }
         }
+        this.resources.clear();
     }
 
-    private void unpick(final Path definitionsPath, final List<ZipFile> zips) throws IOException {
+    private void createUninliner(final Path definitionsPath) throws IOException {
         IClassResolver classResolver = new IClassResolver() {
             @Override
             public @Nullable ClassNode resolveClass(final String internalName) {
@@ -117,74 +152,61 @@ public final class UnpickPage extends AsmProcessorPage {
             }
         };
 
-        try (final BufferedReader definitionsReader = Files.newBufferedReader(definitionsPath)) {
-            for (final Path classpathJar : this.classpath) {
-                final ZipFile zip = new ZipFile(classpathJar.toFile());
-                zips.add(zip);
-                classResolver = classResolver.chain(ClassResolvers.jar(zip));
-            }
+        final BufferedReader definitionsReader = Files.newBufferedReader(definitionsPath);
+        this.resources.add(definitionsReader);
+
+        for (final Path classpathJar : this.classpath) {
+            final ZipFile zip = new ZipFile(classpathJar.toFile());
+            this.resources.add(zip);
+            classResolver = classResolver.chain(ClassResolvers.jar(zip));
+        }
 
-            classResolver = classResolver.chain(ClassResolvers.classpath());
-
-            this.uninliner = ConstantUninliner.builder()
-                    .grouper(ConstantGroupers.dataDriven()
-                            .classResolver(classResolver)
-                            .mappingSource(visitor -> {
-                                try {
-                                    new UnpickV3Reader(definitionsReader)
-                                            .accept(new ForwardingUnpickV3Visitor(visitor) {
-                                                // Filter out any groups where all constants reference missing classes
-                                                // (client classes when applying to the server or outdated definitions)
+        classResolver = classResolver.chain(ClassResolvers.classpath());
+
+        this.uninliner = ConstantUninliner.builder()
+                .grouper(ConstantGroupers.dataDriven()
+                        .classResolver(classResolver)
+                        .mappingSource(visitor -> {
+                            try {
+                                new UnpickV3Reader(definitionsReader).accept(new ForwardingUnpickV3Visitor(visitor) {
+                                    // Filter out any groups where all constants reference missing classes
+                                    // (client classes when applying to the server or outdated definitions)
+                                    @Override
+                                    public void visitGroupDefinition(final GroupDefinition groupDefinition) {
+                                        final List<Expression> constants = new ArrayList<>(groupDefinition.constants());
+                                        for (final Expression constant : groupDefinition.constants()) {
+                                            constant.accept(new ExpressionVisitor() {
                                                 @Override
-                                                public void visitGroupDefinition(
-                                                        final GroupDefinition groupDefinition) {
-                                                    final List<Expression> constants =
-                                                            new ArrayList<>(groupDefinition.constants());
-                                                    for (final Expression constant : groupDefinition.constants()) {
-                                                        constant.accept(new ExpressionVisitor() {
-                                                            @Override
-                                                            public void visitFieldExpression(
-                                                                    final FieldExpression fieldExpression) {
-                                                                try {
-                                                                    final @Nullable ClassData clsData = UnpickPage.this
-                                                                            .context
-                                                                            .getContextProvider()
-                                                                            .findClass(fieldExpression.className);
-                                                                    if (clsData == null) {
-                                                                        constants.remove(constant);
-                                                                    }
-                                                                } catch (final IOException e) {
-                                                                    throw new UncheckedIOException(e);
-                                                                }
-                                                            }
-                                                        });
-                                                    }
-                                                    if (!constants.isEmpty()) {
-                                                        super.visitGroupDefinition(
-                                                                GroupDefinition.Builder.from(groupDefinition)
-                                                                        .setConstants(constants)
-                                                                        .build());
+                                                public void visitFieldExpression(
+                                                        final FieldExpression fieldExpression) {
+                                                    try {
+                                                        final @Nullable ClassData clsData = UnpickPage.this
+                                                                .context
+                                                                .getContextProvider()
+                                                                .findClass(fieldExpression.className);
+                                                        if (clsData == null) {
+                                                            constants.remove(constant);
+                                                        }
+                                                    } catch (final IOException e) {
+                                                        throw new UncheckedIOException(e);
                                                     }
                                                 }
                                             });
-                                } catch (final IOException e) {
-                                    throw new UncheckedIOException(e);
-                                }
-                            })
-                            .build())
-                    .classResolver(classResolver)
-                    .build();
-
-            this.processClasses();
-        } finally {
-            for (final ZipFile zip : zips) {
-                try {
-                    zip.close();
-                } catch (final IOException e) {
-                    // Ignore
-                }
-            }
-        }
+                                        }
+                                        if (!constants.isEmpty()) {
+                                            super.visitGroupDefinition(GroupDefinition.Builder.from(groupDefinition)
+                                                    .setConstants(constants)
+                                                    .build());
+                                        }
+                                    }
+                                });
+                            } catch (final IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        })
+                        .build())
+                .classResolver(classResolver)
+                .build();
     }
 
     @Override
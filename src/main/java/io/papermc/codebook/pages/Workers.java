@@ -0,0 +1,74 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.pages;
+
+import io.papermc.codebook.exceptions.UnexpectedException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+final class Workers {
+
+    private Workers() {}
+
+    /**
+     * Waits for every worker to stop, including the ones still running after another one failed, so whatever they use
+     * isn't closed under them. Workers must stop on their own once {@code failed} is set, which also happens when the
+     * waiting thread is interrupted.
+     *
+     * @return The exception the first failed worker threw, or {@code null} if none failed.
+     * @throws UnexpectedException If the waiting thread was interrupted, once all workers stopped.
+     */
+    static @Nullable Throwable awaitAll(final List<? extends Future<?>> workers, final AtomicBoolean failed) {
+        @Nullable Throwable error = null;
+        boolean interrupted = false;
+        for (final Future<?> worker : workers) {
+            while (true) {
+                try {
+                    worker.get();
+                    break;
+                } catch (final ExecutionException e) {
+                    if (error == null) {
+                        error = e.getCause();
+                    }
+                    break;
+                } catch (final InterruptedException e) {
+                    interrupted = true;
+                    failed.set(true);
+                }
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+            final UnexpectedException e = new UnexpectedException("Interrupted while waiting for workers");
+            if (error != null) {
+                e.addSuppressed(error);
+            }
+            throw e;
+        }
+        return error;
+    }
+}
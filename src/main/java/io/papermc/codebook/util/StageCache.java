@@ -0,0 +1,136 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.util;
+
+import io.papermc.codebook.exceptions.UnexpectedException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Persistent store for stage outputs, addressed by the SHA-256 of the content they were derived from. Entries are
+ * written to a temporary file and atomically moved into place, so concurrent runs sharing a cache directory only ever
+ * see complete files.
+ */
+public final class StageCache {
+
+    /**
+     * Files stored under their own SHA-256, as opposed to stages which are keyed by the hash of their input.
+     */
+    public static final String ARTIFACTS = "artifacts";
+
+    private final Path root;
+
+    public StageCache(final Path root) {
+        this.root = IOUtil.absolutePath(root);
+    }
+
+    public Path root() {
+        return this.root;
+    }
+
+    public @Nullable Path find(final String stage, final String hash, final String fileName) {
+        final Path file = this.entry(stage, hash, fileName);
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    public Path computeIfAbsent(final String stage, final String hash, final String fileName, final Writer writer) {
+        final @Nullable Path existing = this.find(stage, hash, fileName);
+        if (existing != null) {
+            return existing;
+        }
+
+        final Path target = this.entry(stage, hash, fileName);
+        IOUtil.createParentDirectories(target);
+
+        final Path tempFile;
+        try {
+            tempFile = Files.createTempFile(target.getParent(), ".tmp-", "-" + fileName);
+            // writers expect to create the file themselves
+            Files.delete(tempFile);
+        } catch (final IOException e) {
+            throw new UnexpectedException("Failed to create temporary file in " + target.getParent(), e);
+        }
+
+        try {
+            writer.write(tempFile);
+            Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final FileAlreadyExistsException e) {
+            // another run stored the same content first
+        } catch (final IOException e) {
+            if (!Files.isRegularFile(target)) {
+                throw new UnexpectedException("Failed to write cache entry " + target, e);
+            }
+        } finally {
+            IOUtil.deleteIfExists(tempFile);
+        }
+        return target;
+    }
+
+    /**
+     * Returns the SHA-256 of {@code file}. Artifacts stored in this cache are not read again, their hash is taken from
+     * their location instead.
+     */
+    public String hash(final Path file) {
+        final Path artifacts = this.root.resolve(ARTIFACTS);
+        final Path absolute = IOUtil.absolutePath(file);
+        if (absolute.startsWith(artifacts) && artifacts.relativize(absolute).getNameCount() == 2) {
+            return absolute.getParent().getFileName().toString();
+        }
+        return sha256(file);
+    }
+
+    private Path entry(final String stage, final String hash, final String fileName) {
+        return this.root.resolve(stage).resolve(hash.toLowerCase()).resolve(fileName);
+    }
+
+    public static String sha256(final Path file) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new UnexpectedException("SHA-256 is not available", e);
+        }
+
+        try (final InputStream input = new DigestInputStream(Files.newInputStream(file), digest)) {
+            input.transferTo(OutputStream.nullOutputStream());
+        } catch (final IOException e) {
+            throw new UnexpectedException("Failed to hash file " + file, e);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    @FunctionalInterface
+    public interface Writer {
+        void write(Path file) throws IOException;
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.lvt;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import dev.denwav.hypo.asm.AsmMethodData;
+import dev.denwav.hypo.model.ClassDataProvider;
+import dev.denwav.hypo.model.data.ClassData;
+import dev.denwav.hypo.model.data.ClassKind;
+import dev.denwav.hypo.model.data.MethodData;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockSettings;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.LabelNode;
+import org.objectweb.asm.tree.LocalVariableNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.VarInsnNode;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class LvtNameCacheTest {
+
+    private static final MockSettings LENIENT = withSettings().strictness(Strictness.LENIENT);
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private ClassDataProvider provider;
+
+    @Mock
+    private ClassData ownerClass;
+
+    @Mock
+    private ClassData calleeClass;
+
+    @Mock
+    private ClassData baseClass;
+
+    @Mock
+    private ClassData otherBaseClass;
+
+    private MethodNode node;
+    private AsmMethodData method;
+
+    @BeforeEach
+    void setup() throws IOException {
+        named(this.ownerClass, "a/Owner");
+        named(this.calleeClass, "a/Callee");
+        named(this.baseClass, "a/Base");
+        named(this.otherBaseClass, "a/OtherBase");
+        when(this.calleeClass.superClass()).thenReturn(this.baseClass);
+
+        for (final ClassData classData :
+                List.of(this.ownerClass, this.calleeClass, this.baseClass, this.otherBaseClass)) {
+            when(this.provider.findClass(classData.name())).thenReturn(classData);
+        }
+
+        final MethodData get = mock(LENIENT);
+        when(get.parentClass()).thenReturn(this.calleeClass);
+        when(this.calleeClass.method(eq("get"), any())).thenReturn(get);
+
+        // static void run() { a/Value value = callee.get(); }
+        final LabelNode start = new LabelNode(new Label());
+        final LabelNode end = new LabelNode(new Label());
+        this.node = new MethodNode(Opcodes.ACC_STATIC, "run", "()V", null, null);
+        this.node.instructions.add(new MethodInsnNode(Opcodes.INVOKESTATIC, "a/Callee", "get", "()La/Value;"));
+        this.node.instructions.add(new VarInsnNode(Opcodes.ASTORE, 0));
+        this.node.instructions.add(start);
+        this.node.instructions.add(new InsnNode(Opcodes.RETURN));
+        this.node.instructions.add(end);
+        this.node.localVariables = new ArrayList<>();
+        this.node.localVariables.add(new LocalVariableNode("var0", "La/Value;", null, start, end, 0));
+
+        this.method = mock(LENIENT);
+        when(this.method.getNode()).thenReturn(this.node);
+        when(this.method.parentClass()).thenReturn(this.ownerClass);
+    }
+
+    @Test
+    void savedNamesAreApplied() throws IOException {
+        final LvtNameCache cache = LvtNameCache.open(this.tempDir, LvtNameCache.DEFAULT_MAX_BYTES);
+        final byte[] key = this.key(cache);
+        this.node.localVariables.get(0).name = "value";
+        final ScopedNames scopedNames = ScopedNames.root();
+        scopedNames.add("value");
+        cache.put(key, this.method, scopedNames);
+        cache.save();
+
+        this.node.localVariables.get(0).name = "var0";
+        final LvtNameCache reopened = LvtNameCache.open(this.tempDir, LvtNameCache.DEFAULT_MAX_BYTES);
+        assertArrayEquals(key, this.key(reopened));
+        final ScopedNames applied = reopened.apply(key, this.method);
+
+        assertNotNull(applied);
+        assertEquals("value", this.node.localVariables.get(0).name);
+        assertFalse(applied.add("value"));
+    }
+
+    @Test
+    void keyCoversReferencedClasses() throws IOException {
+        final byte[] key = this.key(LvtNameCache.open(this.tempDir, LvtNameCache.DEFAULT_MAX_BYTES));
+        assertArrayEquals(key, this.key(LvtNameCache.open(this.tempDir, LvtNameCache.DEFAULT_MAX_BYTES)));
+
+        when(this.calleeClass.superClass()).thenReturn(this.otherBaseClass);
+        final byte[] supertypeChanged = this.key(LvtNameCache.open(this.tempDir, LvtNameCache.DEFAULT_MAX_BYTES));
+        assertFalse(Arrays.equals(key, supertypeChanged));
+
+        when(this.calleeClass.superClass()).thenReturn(this.baseClass);
+        when(this.calleeClass.kinds()).thenReturn(EnumSet.of(ClassKind.RECORD));
+        final byte[] recordChanged = this.key(LvtNameCache.open(this.tempDir, LvtNameCache.DEFAULT_MAX_BYTES));
+        assertFalse(Arrays.equals(key, recordChanged));
+    }
+
+    @Test
+    void corruptFilesAreIgnored() throws IOException {
+        try (final DataOutputStream out =
+                new DataOutputStream(Files.newOutputStream(this.tempDir.resolve("names.bin")))) {
+            out.writeInt(0x4C56544E);
+            out.writeInt(1);
+            out.write(new byte[32]);
+            out.writeLong(0);
+            out.writeInt(Integer.MAX_VALUE);
+        }
+
+        final LvtNameCache cache = LvtNameCache.open(this.tempDir, LvtNameCache.DEFAULT_MAX_BYTES);
+        assertNull(cache.apply(new byte[32], this.method));
+        cache.save();
+    }
+
+    private byte[] key(final LvtNameCache cache) throws IOException {
+        return cache.key(this.provider, this.method, null, NamingRules.defaults());
+    }
+
+    private static void named(final ClassData classData, final String name) throws IOException {
+        when(classData.name()).thenReturn(name);
+        when(classData.kinds()).thenReturn(EnumSet.of(ClassKind.CLASS));
+        when(classData.interfaces()).thenReturn(List.of());
+    }
+}
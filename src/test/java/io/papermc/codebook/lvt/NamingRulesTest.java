@@ -0,0 +1,141 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.lvt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.papermc.codebook.lvt.suggestion.SuggesterCriteria;
+import io.papermc.codebook.lvt.suggestion.SuggesterCriteria.ReturnKind;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class NamingRulesTest {
+
+    @Test
+    void firstMatchingRuleWins() {
+        final NamingRules.Section rules = NamingRules.parse(
+                        """
+                        [test]
+                        a/Owner   get       *       -> owned
+                        *         getOrCreate*  *   -> {rest}
+                        *         get*      *       -> {rest}
+                        *         get       *       -> plain
+                        """)
+                .section("test");
+
+        assertEquals("owned", rules.name("a/Owner", "get", "()I"));
+        assertEquals("plain", rules.name("b/Other", "get", "()I"));
+        assertEquals("thing", rules.name("b/Other", "getOrCreateThing", "()I"));
+        assertEquals("orCreate", rules.name("b/Other", "getOrCreate", "()I"));
+        assertEquals("aabb", rules.name("b/Other", "getAABB", "()I"));
+    }
+
+    @Test
+    void placeholdersNeedAWordAfterThePrefix() {
+        final NamingRules.Section rules = NamingRules.parse(
+                        """
+                        [test]
+                        *   is*     (*)Z    -> {name}
+                        *   get*    *       -> {rest}
+                        """)
+                .section("test");
+
+        assertEquals("isEmpty", rules.name("a/Owner", "isEmpty", "()Z"));
+        // the first matching rule decides, even if it doesn't give a name
+        assertNull(rules.name("a/Owner", "isolate", "()Z"));
+        assertNull(rules.name("a/Owner", "getaway", "()I"));
+        assertNull(rules.name("a/Owner", "is", "()Z"));
+    }
+
+    @Test
+    void descriptorsMatchParametersAndReturnType() {
+        final NamingRules.Section rules = NamingRules.parse(
+                        """
+                        [test]
+                        *   repeat  (*)Ljava/lang/String;   -> repeated
+                        *   max     (II)I                   -> max
+                        """)
+                .section("test");
+
+        assertEquals("repeated", rules.name("a/Owner", "repeat", "(I)Ljava/lang/String;"));
+        assertNull(rules.name("a/Owner", "repeat", "(I)Ljava/lang/StringBuilder;"));
+        assertEquals("max", rules.name("a/Owner", "max", "(II)I"));
+        assertNull(rules.name("a/Owner", "max", "(JJ)J"));
+    }
+
+    @Test
+    void criteriaCoverEveryRule() {
+        final NamingRules rules = NamingRules.parse(
+                """
+                [owned]
+                a/Owner   split     *   -> parts
+                b/Owner   split*    *   -> parts
+                [boolean]
+                *         is*       (*)Z    -> {name}
+                *         has       (I)Z    -> has
+                """);
+
+        final SuggesterCriteria owned = rules.section("owned").criteria();
+        assertEquals(Set.of("a/Owner", "b/Owner"), owned.owners());
+        assertEquals(Set.of("split"), owned.names());
+        assertEquals(Set.of("split"), owned.prefixes());
+        assertEquals(ReturnKind.ANY, owned.returns());
+
+        final SuggesterCriteria bool = rules.section("boolean").criteria();
+        assertNull(bool.owners());
+        assertEquals(ReturnKind.BOOLEAN, bool.returns());
+
+        assertNull(rules.section("missing").name("a/Owner", "split", "()V"));
+    }
+
+    @Test
+    void invalidRulesReportTheirLine() {
+        final IllegalArgumentException e = assertThrows(
+                IllegalArgumentException.class,
+                () -> NamingRules.parse(
+                        """
+                        [test]
+                        *   get*    *   -> {rest}
+                        *   get*    -> broken
+                        """));
+        assertTrue(e.getMessage().startsWith("line 3:"), e.getMessage());
+
+        assertThrows(IllegalArgumentException.class, () -> NamingRules.parse("*   get   *   -> outside"));
+        assertThrows(IllegalArgumentException.class, () -> NamingRules.parse("[test]\n*   get   *   -> {other}"));
+    }
+
+    @Test
+    void defaultRulesParse() {
+        final NamingRules rules = NamingRules.defaults();
+        assertEquals("squareRoot", rules.section("math").name("java/lang/Math", "sqrt", "(D)D"));
+        assertNull(rules.section("math").name("java/lang/StrictMath", "sqrt", "(D)D"));
+        assertEquals(
+                "parts",
+                rules.section("string").name("java/lang/String", "split", "(Ljava/lang/String;)[Ljava/lang/String;"));
+        assertEquals("thing", rules.section("single-verb").name("a/Owner", "getOrCreateThing", "()La/Thing;"));
+        assertNull(rules.section("single-verb").name("a/Owner", "getOrCreate", "()La/Thing;"));
+    }
+}
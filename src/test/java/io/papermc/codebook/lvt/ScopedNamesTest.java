@@ -0,0 +1,93 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.lvt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class ScopedNamesTest {
+
+    @Test
+    void nestedScopeSeesOuterNames() {
+        final ScopedNames outer = ScopedNames.root();
+        outer.add("a");
+        outer.add("b");
+
+        final ScopedNames inner = outer.nested();
+        assertTrue(inner.contains("a"));
+        assertFalse(inner.add("b"));
+        assertTrue(inner.add("c"));
+
+        assertFalse(outer.contains("c"));
+        assertEquals(List.of("a", "b", "c"), List.copyOf(inner));
+        assertEquals(3, inner.size());
+    }
+
+    @Test
+    void laterOuterNamesAreNotVisible() {
+        final ScopedNames outer = ScopedNames.root();
+        outer.add("a");
+        final ScopedNames inner = outer.nested();
+        final ScopedNames innermost = inner.nested();
+
+        outer.add("b");
+        inner.add("c");
+
+        assertFalse(inner.contains("b"));
+        assertFalse(innermost.contains("b"));
+        assertFalse(innermost.contains("c"));
+        assertTrue(innermost.add("b"));
+        assertEquals(Set.of("a", "b"), Set.copyOf(innermost));
+    }
+
+    @Test
+    void determineFinalNameProbesNestedScopes() {
+        final ScopedNames outer = ScopedNames.root();
+        assertEquals("value", RootLvtSuggester.determineFinalName("value", outer));
+
+        final ScopedNames inner = outer.nested();
+        assertEquals("value1", RootLvtSuggester.determineFinalName("value", inner));
+        assertEquals("value1", RootLvtSuggester.determineFinalName("value", outer));
+    }
+
+    @Test
+    void claimSkipsUsedSuffixes() {
+        final ScopedNames outer = ScopedNames.root();
+        assertEquals("i", outer.claim("i"));
+        assertEquals("i1", outer.claim("i"));
+        outer.add("i2");
+        outer.add("i4");
+        assertEquals("i3", outer.claim("i"));
+        assertEquals("i5", outer.claim("i"));
+
+        final ScopedNames inner = outer.nested();
+        outer.add("i6");
+        assertEquals("i6", inner.claim("i"));
+        assertEquals("i7", outer.claim("i"));
+    }
+}
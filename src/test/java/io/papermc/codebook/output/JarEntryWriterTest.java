@@ -0,0 +1,118 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.output;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.papermc.codebook.config.CodeBookCompression;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.jar.JarInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JarEntryWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void writesDeflatedEntries() throws IOException {
+        this.roundTrip(CodeBookCompression.DEFAULT, ZipEntry.DEFLATED);
+    }
+
+    @Test
+    void writesStoredEntries() throws IOException {
+        this.roundTrip(CodeBookCompression.STORED, ZipEntry.STORED);
+    }
+
+    @Test
+    void sameEntriesProduceIdenticalJars() throws IOException {
+        final Map<String, byte[]> entries = entries();
+        final Path first = this.write("first.jar", entries, CodeBookCompression.deflate(9));
+        final Path second = this.write("second.jar", entries, CodeBookCompression.deflate(9));
+
+        assertArrayEquals(Files.readAllBytes(first), Files.readAllBytes(second));
+    }
+
+    private void roundTrip(final CodeBookCompression compression, final int method) throws IOException {
+        final Map<String, byte[]> entries = entries();
+        final Path jar = this.write("output.jar", entries, compression);
+
+        try (final ZipFile zip = new ZipFile(jar.toFile())) {
+            final List<String> names = new ArrayList<>();
+            zip.stream().forEach(e -> names.add(e.getName()));
+            assertEquals(List.copyOf(entries.keySet()), names);
+
+            for (final Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                final ZipEntry zipEntry = zip.getEntry(entry.getKey());
+                assertEquals(method, zipEntry.getMethod());
+                try (final InputStream input = zip.getInputStream(zipEntry)) {
+                    assertArrayEquals(entry.getValue(), input.readAllBytes());
+                }
+            }
+        }
+
+        // streaming readers only see the local headers
+        try (final JarInputStream input = new JarInputStream(Files.newInputStream(jar))) {
+            for (final Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                assertEquals(entry.getKey(), input.getNextJarEntry().getName());
+                assertArrayEquals(entry.getValue(), input.readAllBytes());
+            }
+        }
+    }
+
+    private Path write(final String name, final Map<String, byte[]> entries, final CodeBookCompression compression)
+            throws IOException {
+        final Path jar = this.tempDir.resolve(name);
+        try (final JarEntryWriter writer = new JarEntryWriter(new BufferedOutputStream(Files.newOutputStream(jar)))) {
+            for (final Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                writer.write(CompressedEntry.of(entry.getKey(), entry.getValue(), compression));
+            }
+        }
+        return jar;
+    }
+
+    private static Map<String, byte[]> entries() {
+        final Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("com/example/Empty.class", new byte[0]);
+        entries.put("com/example/Text.class", "text ".repeat(1000).getBytes(StandardCharsets.UTF_8));
+        entries.put("com/example/Ünicode.class", "ünicode".getBytes(StandardCharsets.UTF_8));
+        final byte[] random = new byte[20_000];
+        new Random(42).nextBytes(random);
+        entries.put("a/Random.class", random);
+        return entries;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.output;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.papermc.codebook.config.CodeBookCompression;
+import io.papermc.codebook.exceptions.UnexpectedException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+@Timeout(value = 30, unit = TimeUnit.SECONDS)
+class StreamingJarWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void writesEntriesInIndexOrder() throws Exception {
+        final Path jar = this.tempDir.resolve("output.jar");
+        try (final StreamingJarWriter writer = new StreamingJarWriter(jar, 4)) {
+            writer.write(2, entry("c"));
+            writer.write(0, entry("a"));
+            writer.write(3, entry("d"));
+            writer.write(1, entry("b"));
+            writer.finish(4);
+        }
+
+        assertEquals(List.of("a", "b", "c", "d"), names(jar));
+    }
+
+    @Test
+    void skippedEntriesAreLeftOut() throws Exception {
+        final Path jar = this.tempDir.resolve("output.jar");
+        try (final StreamingJarWriter writer = new StreamingJarWriter(jar, 4)) {
+            writer.write(2, entry("c"));
+            writer.skip(1);
+            writer.write(0, entry("a"));
+            writer.skip(3);
+            writer.finish(4);
+        }
+
+        assertEquals(List.of("a", "c"), names(jar));
+    }
+
+    @Test
+    void closeUnblocksProducersWaitingOnTheWindow() throws Exception {
+        final StreamingJarWriter writer = new StreamingJarWriter(this.tempDir.resolve("output.jar"), 1);
+        final CompletableFuture<Throwable> failure = new CompletableFuture<>();
+        final Thread producer = Thread.ofPlatform()
+                .uncaughtExceptionHandler((t, e) -> failure.complete(e))
+                .start(() -> {
+                    try {
+                        writer.write(5, entry("f"));
+                    } catch (final InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+
+        awaitWaiting(producer);
+        writer.close();
+
+        assertInstanceOf(UnexpectedException.class, failure.get());
+    }
+
+    @Test
+    void writerFailuresArePropagated() throws Exception {
+        final Path jar = this.tempDir.resolve("missing").resolve("output.jar");
+        try (final StreamingJarWriter writer = new StreamingJarWriter(jar, 1)) {
+            // waits for the writer thread, which can't create the jar
+            final UnexpectedException e = assertThrows(UnexpectedException.class, () -> writer.finish(3));
+            assertInstanceOf(NoSuchFileException.class, e.getCause());
+
+            assertThrows(UnexpectedException.class, () -> writer.write(2, entry("c")));
+        }
+    }
+
+    private static void awaitWaiting(final Thread thread) throws InterruptedException {
+        while (thread.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static CompressedEntry entry(final String name) {
+        return CompressedEntry.of(name, name.getBytes(StandardCharsets.UTF_8), CodeBookCompression.DEFAULT);
+    }
+
+    private static List<String> names(final Path jar) throws IOException {
+        try (final ZipFile zip = new ZipFile(jar.toFile())) {
+            final List<String> names = new ArrayList<>();
+            zip.stream().forEach(e -> names.add(e.getName()));
+            return names;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.pages;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldInsnNode;
+import org.objectweb.asm.tree.InvokeDynamicInsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+
+class ClassDependenciesTest {
+
+    @Test
+    void supertypeChangesAffectAllSubtypes() {
+        final ClassDependencies dependencies = new ClassDependencies();
+        dependencies.supertype("a/Base", "a/Middle");
+        dependencies.supertype("a/Middle", "a/Leaf");
+        dependencies.supertype("a/Other", "a/Unrelated");
+
+        assertEquals(Set.of("a/Base", "a/Middle", "a/Leaf"), dependencies.affected(List.of("a/Base")));
+        assertEquals(Set.of("a/Leaf"), dependencies.affected(List.of("a/Leaf")));
+    }
+
+    @Test
+    void closuresAffectEachOther() {
+        final ClassDependencies dependencies = new ClassDependencies();
+        dependencies.closure("a/Outer", "a/Outer$1");
+        dependencies.closure("a/Outer$1", "a/Outer$1$1");
+
+        assertEquals(Set.of("a/Outer", "a/Outer$1", "a/Outer$1$1"), dependencies.affected(List.of("a/Outer$1$1")));
+    }
+
+    @Test
+    void referencesOnlyCountWhenTheReferencedClassChanged() {
+        final ClassDependencies dependencies = new ClassDependencies();
+        dependencies.supertype("a/Base", "a/Callee");
+        dependencies.reference("a/Callee", "a/Caller");
+        dependencies.reference("a/Caller", "a/CallersCaller");
+        dependencies.closure("a/Caller", "a/Caller$1");
+
+        // the caller's output changes, but not its bytecode or hierarchy
+        assertEquals(Set.of("a/Callee", "a/Caller", "a/Caller$1"), dependencies.affected(List.of("a/Callee")));
+        assertEquals(Set.of("a/Base", "a/Callee", "a/Caller", "a/Caller$1"), dependencies.affected(List.of("a/Base")));
+        assertEquals(Set.of("a/Caller", "a/Caller$1", "a/CallersCaller"), dependencies.affected(List.of("a/Caller")));
+    }
+
+    @Test
+    void referencesAreReadFromInstructions() {
+        final ClassNode node = new ClassNode();
+        node.name = "a/Caller";
+        final MethodNode method = new MethodNode(Opcodes.ACC_STATIC, "run", "()V", null, null);
+        method.instructions.add(new MethodInsnNode(Opcodes.INVOKESTATIC, "a/Method", "m", "()V", false));
+        method.instructions.add(new FieldInsnNode(Opcodes.GETSTATIC, "a/Field", "f", "I"));
+        method.instructions.add(new MethodInsnNode(Opcodes.INVOKEVIRTUAL, "[I", "clone", "()Ljava/lang/Object;"));
+        final Handle metafactory =
+                new Handle(Opcodes.H_INVOKESTATIC, "java/lang/invoke/LambdaMetafactory", "metafactory", "()V", false);
+        method.instructions.add(new InvokeDynamicInsnNode(
+                "get",
+                "()Ljava/util/function/Supplier;",
+                metafactory,
+                Type.getType("()Ljava/lang/Object;"),
+                new Handle(Opcodes.H_INVOKESTATIC, "a/Handle", "h", "()Ljava/lang/Object;", false),
+                Type.getType("()Ljava/lang/Object;")));
+        node.methods.add(method);
+
+        final ClassDependencies dependencies = new ClassDependencies();
+        dependencies.references(node);
+
+        for (final String referenced : List.of("a/Method", "a/Field", "a/Handle")) {
+            assertEquals(Set.of(referenced, "a/Caller"), dependencies.affected(List.of(referenced)));
+        }
+        assertEquals(Set.of("[I"), dependencies.affected(List.of("[I")));
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * codebook is a remapper utility for the PaperMC project.
+ *
+ * Copyright (c) 2023 Kyle Wood (DenWav)
+ *                    Contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation;
+ * version 3 only, no later versions.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package io.papermc.codebook.pages;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import io.papermc.codebook.config.CodeBookContext;
+import io.papermc.codebook.config.CodeBookJarInput;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RunFingerprintTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void writtenFingerprintsMatch() throws IOException {
+        final Path output = this.tempDir.resolve("output.jar");
+        final Path unpick = Files.writeString(this.tempDir.resolve("definitions.unpick"), "unpick v3\n");
+        final List<Path> libraries = List.of(this.tempDir.resolve("b.jar"), this.tempDir.resolve("a.jar"));
+
+        assertNull(RunFingerprint.read(output));
+        RunFingerprint.of(context(null), unpick, libraries).write(output);
+        final RunFingerprint previous = RunFingerprint.read(output);
+
+        assertNotNull(previous);
+        assertEquals(
+                List.of(),
+                RunFingerprint.of(context(null), unpick, libraries.reversed()).differences(previous));
+    }
+
+    @Test
+    void changedInputsAreReported() throws IOException {
+        final Path unpick = Files.writeString(this.tempDir.resolve("definitions.unpick"), "unpick v3\n");
+        final Path rules = Files.writeString(this.tempDir.resolve("rules.txt"), "[test]\n*   get*    *   -> {rest}\n");
+        final RunFingerprint previous = RunFingerprint.of(context(null), unpick, List.of(Path.of("a.jar")));
+
+        Files.writeString(unpick, "unpick v3\n\ngroup int\n");
+        final RunFingerprint current = RunFingerprint.of(context(rules), unpick, List.of(Path.of("b.jar")));
+
+        assertEquals(List.of("libraries", "lvt-rules", "unpick"), current.differences(previous));
+    }
+
+    private CodeBookContext context(final @Nullable Path lvtRules) {
+        return CodeBookContext.builder()
+                .input(new CodeBookJarInput(this.tempDir.resolve("input.jar"), List.of()))
+                .outputJar(this.tempDir.resolve("output.jar"))
+                .lvtRules(lvtRules)
+                .build();
+    }
+}
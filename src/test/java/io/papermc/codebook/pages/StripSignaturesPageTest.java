@@ -25,10 +25,12 @@ package io.papermc.codebook.pages;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
 import com.google.inject.Module;
+import io.papermc.codebook.util.StageCache;
 import java.io.IOException;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
@@ -37,6 +39,7 @@ import java.nio.file.Path;
 import java.util.Map;
 import java.util.Set;
 import java.util.jar.Manifest;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
@@ -140,8 +143,31 @@ class StripSignaturesPageTest {
         assertEquals(inputJar, rewrittenJar);
     }
 
+    @Test
+    void reusesCachedJarForIdenticalInput() throws IOException {
+        final Path inputJar = this.tempDir.resolve("cached.jar");
+        createJar(
+                inputJar,
+                Map.of(
+                        "/META-INF/MANIFEST.MF", "Manifest-Version: 1.0\n",
+                        "/META-INF/TEST.SF", "signature",
+                        "/com/example/Test.class", "class bytes"));
+
+        final StageCache cache = new StageCache(this.tempDir.resolve("cache"));
+        final Path firstJar = execPage(inputJar, this.tempDir, cache);
+        final Path secondJar = execPage(inputJar, this.tempDir, cache);
+
+        assertEquals(firstJar, secondJar);
+        assertTrue(firstJar.startsWith(cache.root()));
+        assertEquals(Set.of("/META-INF/MANIFEST.MF", "/com/example/Test.class"), jarEntries(secondJar));
+    }
+
     private static Path execPage(final Path inputJar, final Path tempDir) {
-        final StripSignaturesPage page = new StripSignaturesPage(inputJar, tempDir);
+        return execPage(inputJar, tempDir, null);
+    }
+
+    private static Path execPage(final Path inputJar, final Path tempDir, final @Nullable StageCache cache) {
+        final StripSignaturesPage page = new StripSignaturesPage(inputJar, tempDir, cache);
         final Module module = page.exec(new AbstractModule() {
             @Override
             protected void configure() {